@@ -0,0 +1,249 @@
+package me.june.chapter04.chunk.basic;
+
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 청크 처리 시간을 측정해서 목표 시간에 가까워지도록 청크 사이즈를 조절하는 CompletionPolicy
+ * -> 청크 시작 (beforeChunk) ~ 커밋 완료 (afterCompletion) 시간이 targetLatency 보다 짧으면 increment 만큼 늘리고,
+ *    길거나 롤백되었다면 decreaseFactor 를 곱해서 줄인다. (AIMD, 가산 증가 / 승산 감소)
+ * -> 입력이 끝나서 청크가 덜 채워진 경우는 처리 시간이 짧더라도 사이즈를 늘리지 않는다.
+ *
+ * 읽기+처리, 쓰기, 커밋 시간을 각각 측정하기 위해 ChunkListener, ItemWriteListener, StepExecutionListener 로도 등록해야 한다.
+ * -> 선택된 청크 사이즈와 변경 이력은 StepExecution 의 ExecutionContext 에 저장하고, 재시작시 마지막 사이즈부터 시작한다.
+ * -> 청크 단위로 상태를 가지므로 멀티 스레드 스텝에서는 사용할 수 없다.
+ */
+@Slf4j
+public class AdaptiveChunkSizePolicy implements CompletionPolicy, ChunkListener, ItemWriteListener<Object>,
+    StepExecutionListener {
+
+    public static final String CHUNK_SIZE_KEY = "adaptive.chunk.size";
+    public static final String CHUNK_SIZE_HISTORY_KEY = "adaptive.chunk.size.history";
+
+    private static final int MAX_HISTORY_LENGTH = 2_000;
+
+    private final long targetLatencyNanos;
+    private int initialChunkSize = 10;
+    private int minChunkSize = 1;
+    private int maxChunkSize = 10_000;
+    private int increment = 10;
+    private double decreaseFactor = 0.5;
+
+    private StepExecution stepExecution;
+    private int chunkSize;
+    private int totalProcessed;
+    private StringBuilder history;
+
+    private long chunkStart;
+    private long writeStart;
+    private long writeEnd;
+    private long commitStart;
+    private boolean adjusted;
+
+    public AdaptiveChunkSizePolicy(Duration targetLatency) {
+        this.targetLatencyNanos = targetLatency.toNanos();
+    }
+
+    public void setInitialChunkSize(int initialChunkSize) {
+        this.initialChunkSize = initialChunkSize;
+    }
+
+    public void setMinChunkSize(int minChunkSize) {
+        this.minChunkSize = minChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public void setIncrement(int increment) {
+        this.increment = increment;
+    }
+
+    public void setDecreaseFactor(double decreaseFactor) {
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        Assert.isTrue(minChunkSize > 0 && minChunkSize <= maxChunkSize, "minChunkSize must be between 1 and maxChunkSize");
+        Assert.isTrue(decreaseFactor > 0 && decreaseFactor < 1, "decreaseFactor must be between 0 and 1");
+        Assert.isTrue(increment > 0, "increment must be greater than 0");
+
+        this.stepExecution = stepExecution;
+        ExecutionContext context = stepExecution.getExecutionContext();
+        this.chunkSize = clamp(context.getInt(CHUNK_SIZE_KEY, initialChunkSize));
+        this.history = new StringBuilder(context.getString(CHUNK_SIZE_HISTORY_KEY, ""));
+        if (history.length() == 0) {
+            record();
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("{} finished with chunk size {} (history: {})", stepExecution.getStepName(), chunkSize, history);
+        this.stepExecution = null;
+        return null;
+    }
+
+    /**
+     * 청크 트랜잭션 안에서 호출되므로 커밋이 끝난 시점을 알기 위해 TransactionSynchronization 을 등록한다.
+     */
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart = System.nanoTime();
+        writeStart = 0;
+        writeEnd = 0;
+        commitStart = 0;
+        adjusted = false;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitStart = System.nanoTime();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    adjust(status == STATUS_COMMITTED);
+                }
+            });
+        }
+    }
+
+    /**
+     * TaskletStep 은 청크 트랜잭션이 끝난 뒤에 호출하므로 afterCompletion 에서 이미 조절했다면 건너뛴다.
+     * -> 트랜잭션 동기화가 없어서 afterCompletion 이 호출되지 않은 경우에만 여기서 조절한다.
+     */
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!adjusted) {
+            adjust(true);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        writeStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        writeEnd = System.nanoTime();
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+        writeEnd = System.nanoTime();
+    }
+
+    /**
+     * 읽기마다 한번 호출되므로 여기서 아이템 수를 센다.
+     * -> 아이템을 읽었다면 CONTINUABLE, 입력이 끝났다면 (null) FINISHED 가 전달된다.
+     */
+    @Override
+    public boolean isComplete(RepeatContext repeatContext, RepeatStatus repeatStatus) {
+        if (RepeatStatus.FINISHED == repeatStatus) {
+            return true;
+        }
+        this.totalProcessed++;
+        return isComplete(repeatContext);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext repeatContext) {
+        return this.totalProcessed >= chunkSize;
+    }
+
+    /**
+     * 전달받은 컨텍스트는 바깥 (스텝) 반복의 컨텍스트이므로 청크 반복에서 사용할 컨텍스트를 새로 만든다.
+     * -> 그대로 반환하면 청크 반복이 끝날때 바깥 컨텍스트가 닫힌다.
+     */
+    @Override
+    public RepeatContext start(RepeatContext repeatContext) {
+        if (chunkSize == 0) {
+            chunkSize = clamp(initialChunkSize); // 리스너로 등록되지 않은 경우
+        }
+        this.totalProcessed = 0;
+        return new RepeatContextSupport(repeatContext);
+    }
+
+    /**
+     * 읽기 전에 호출되므로 입력의 끝을 확인하는 마지막 읽기도 포함된다. (아이템 수는 isComplete 에서 센다.)
+     */
+    @Override
+    public void update(RepeatContext repeatContext) {
+    }
+
+    private void adjust(boolean committed) {
+        adjusted = true;
+        long end = System.nanoTime();
+        long latency = end - chunkStart;
+        int previous = chunkSize;
+
+        if (!committed || latency > targetLatencyNanos) {
+            chunkSize = clamp((int) (chunkSize * decreaseFactor));
+        } else if (totalProcessed >= chunkSize) {
+            chunkSize = clamp(chunkSize + increment);
+        }
+
+        if (log.isDebugEnabled()) {
+            long readProcessEnd = writeStart > 0 ? writeStart : end;
+            log.debug("chunk of {} items took {}ms (read/process {}ms, write {}ms, commit {}ms), next size {}",
+                totalProcessed, millis(latency), millis(readProcessEnd - chunkStart),
+                millis(writeEnd > writeStart ? writeEnd - writeStart : 0),
+                millis(commitStart > 0 ? end - commitStart : 0), chunkSize);
+        }
+        if (chunkSize != previous) {
+            record();
+        }
+    }
+
+    /**
+     * 커밋 이후에 호출되더라도 ExecutionContext 는 다음 청크 또는 스텝 종료시에 함께 저장된다.
+     */
+    private void record() {
+        if (stepExecution == null) {
+            return;
+        }
+        if (history.length() > 0) {
+            history.append(',');
+        }
+        history.append(chunkSize);
+        if (history.length() > MAX_HISTORY_LENGTH) {
+            history.delete(0, history.indexOf(",", history.length() - MAX_HISTORY_LENGTH) + 1);
+        }
+
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putInt(CHUNK_SIZE_KEY, chunkSize);
+        context.putString(CHUNK_SIZE_HISTORY_KEY, history.toString());
+    }
+
+    private int clamp(int size) {
+        return Math.max(minChunkSize, Math.min(maxChunkSize, size));
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -1,11 +1,15 @@
 package me.june.chapter04.chunk.basic;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import me.june.chapter04.chunk.LoggingStepStartStopListener;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
@@ -48,10 +52,15 @@ public class ChunkBasedJobConfiguration {
         return this.stepBuilderFactory.get("chunkStep")
             // .<String, String>chunk(1_000) // 일반적으로 청크사이즈를 하드코딩하지만 모든 상황에 적절한 것은 아니다.
 //            .<String, String>chunk(completionPolicy())
-            .<String, String>chunk(randomCompletionPolicy())
+//            .<String, String>chunk(randomCompletionPolicy())
+            .<String, String>chunk(adaptiveCompletionPolicy())
             .reader(itemReader())
             .writer(itemWriter())
             .listener(new LoggingStepStartStopListener())
+            // 청크 처리 시간을 측정하기 위해 리스너로도 등록해야 한다.
+            .listener((StepExecutionListener) adaptiveCompletionPolicy())
+            .listener((ChunkListener) adaptiveCompletionPolicy())
+            .listener((ItemWriteListener<Object>) adaptiveCompletionPolicy())
             .build();
     }
 
@@ -92,6 +101,18 @@ public class ChunkBasedJobConfiguration {
         return new RandomChunkSizePolicy();
     }
 
+    /**
+     * 청크 처리 시간이 목표 시간 (200ms) 에 가까워지도록 청크 사이즈를 늘리거나 줄인다.
+     * -> 저장소마다 적절한 청크 사이즈를 직접 찾지 않아도 된다.
+     */
+    @Bean
+    public AdaptiveChunkSizePolicy adaptiveCompletionPolicy() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(Duration.ofMillis(200));
+        policy.setInitialChunkSize(10);
+        policy.setMaxChunkSize(5_000);
+        return policy;
+    }
+
     public static void main(String[] args) {
         SpringApplication.run(ChunkBasedJobConfiguration.class, args);
     }
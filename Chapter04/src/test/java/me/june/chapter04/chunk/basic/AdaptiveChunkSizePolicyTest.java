@@ -0,0 +1,164 @@
+package me.june.chapter04.chunk.basic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private final AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(Duration.ofMinutes(1));
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+    @Test
+    void growsAfterFullChunk() {
+        policy.setInitialChunkSize(3);
+        policy.beforeStep(stepExecution);
+
+        assertThat(readChunk(1, 2, 3, 4)).isEqualTo(3);
+        policy.afterChunk(null);
+
+        assertThat(chunkSize()).isEqualTo(13);
+    }
+
+    /**
+     * 입력의 끝을 확인하는 마지막 (null) 읽기는 아이템으로 세지 않으므로 덜 채워진 청크로 보고 사이즈를 늘리지 않는다.
+     */
+    @Test
+    void doesNotGrowAfterPartialLastChunk() {
+        policy.setInitialChunkSize(3);
+        policy.beforeStep(stepExecution);
+
+        assertThat(readChunk(1, 2)).isEqualTo(2);
+        policy.afterChunk(null);
+
+        assertThat(chunkSize()).isEqualTo(3);
+    }
+
+    /**
+     * TaskletStep 은 커밋 (afterCompletion) 이후에 afterChunk 를 호출하므로 청크 하나에 한번만 조절되어야 한다.
+     * -> 25 개 아이템: 10 (가득 참, 20 으로 증가) -> 15 (덜 채워짐, 유지)
+     */
+    @Test
+    void growsOncePerCommittedChunkInTaskletStep() throws Exception {
+        StepExecution execution = runStep(policy, 25);
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getCommitCount()).isEqualTo(2);
+        assertThat(execution.getExecutionContext().getString(AdaptiveChunkSizePolicy.CHUNK_SIZE_HISTORY_KEY))
+            .isEqualTo("10,20");
+    }
+
+    /**
+     * 모든 청크가 목표 시간보다 느리다면 청크마다 한번씩만 줄어든다.
+     * -> 13 개 아이템: 8 -> 4 -> 1 (입력의 끝) 로 3 번 커밋된다. (두번씩 줄어든다면 더 작은 청크로 더 많이 커밋된다.)
+     */
+    @Test
+    void shrinksOncePerCommittedChunkInTaskletStep() throws Exception {
+        AdaptiveChunkSizePolicy slowPolicy = new AdaptiveChunkSizePolicy(Duration.ofNanos(1));
+        slowPolicy.setInitialChunkSize(8);
+
+        StepExecution execution = runStep(slowPolicy, 13);
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getCommitCount()).isEqualTo(3);
+        assertThat(execution.getReadCount()).isEqualTo(13);
+        assertThat(execution.getExecutionContext().getString(AdaptiveChunkSizePolicy.CHUNK_SIZE_HISTORY_KEY))
+            .isEqualTo("8,4,2,1");
+    }
+
+    @Test
+    void rejectsNonPositiveIncrement() {
+        policy.setIncrement(0);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> policy.beforeStep(stepExecution));
+    }
+
+    /**
+     * 임베디드 H2 JobRepository 와 DataSourceTransactionManager 로 청크 트랜잭션 안에서 스텝을 실행한다.
+     */
+    private static StepExecution runStep(AdaptiveChunkSizePolicy policy, int itemCount) throws Exception {
+        EmbeddedDatabase dataSource = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+            .build();
+        try {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setTransactionManager(transactionManager);
+            factoryBean.afterPropertiesSet();
+            JobRepository jobRepository = factoryBean.getObject();
+
+            List<String> items = IntStream.range(0, itemCount).mapToObj(String::valueOf).collect(Collectors.toList());
+            TaskletStep step = new StepBuilder("step")
+                .repository(jobRepository)
+                .transactionManager(transactionManager)
+                .<String, String>chunk(policy)
+                .reader(new ListItemReader<>(items))
+                .writer(chunk -> {
+                })
+                .listener((StepExecutionListener) policy)
+                .listener((ChunkListener) policy)
+                .listener((ItemWriteListener<Object>) policy)
+                .build();
+
+            StepExecution execution = jobRepository.createJobExecution("job", new JobParameters())
+                .createStepExecution("step");
+            jobRepository.add(execution);
+            step.execute(execution);
+            return execution;
+        } finally {
+            dataSource.shutdown();
+        }
+    }
+
+    /**
+     * SimpleChunkProvider 처럼 아이템을 읽으면 CONTINUABLE, 입력이 끝나면 FINISHED 를 반환하며 청크 하나를 읽는다.
+     */
+    private int readChunk(Integer... items) {
+        Deque<Integer> input = new ArrayDeque<>(Arrays.asList(items));
+        int[] read = new int[1];
+        RepeatTemplate template = new RepeatTemplate();
+        template.setCompletionPolicy(policy);
+        policy.beforeChunk(null);
+        template.iterate(context -> {
+            if (input.poll() == null) {
+                return RepeatStatus.FINISHED;
+            }
+            read[0]++;
+            return RepeatStatus.CONTINUABLE;
+        });
+        return read[0];
+    }
+
+    private int chunkSize() {
+        return stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE_KEY);
+    }
+}
@@ -0,0 +1,138 @@
+package me.nuc.chapter05;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.dao.ExecutionContextDao;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 마지막으로 저장한 이후 변경되지 않은 스텝 ExecutionContext 는 다시 쓰지 않는 ExecutionContextDao
+ * -> 청크가 커밋될때 마다 스텝 ExecutionContext 를 update 하는데, 상태를 저장하지 않는 리더/라이터만 사용하는 스텝이라면 매번 같은 값을 쓰게 된다.
+ * -> 병렬 스텝이 많을수록 BATCH_STEP_EXECUTION_CONTEXT 에 대한 불필요한 update 가 락 경합을 만든다.
+ * -> 마지막으로 쓴 컨텍스트의 복사본 (키와 값의 얕은 복사) 을 스텝 실행별로 기억해두고, 현재 컨텍스트와 같다면 update 를 생략한다.
+ *    (직렬화 + 해시를 매번 계산하는 대신 Map.equals 로 비교한다.)
+ * -> 얕은 복사로는 컨텍스트에 넣은 컬렉션, Date 등을 직접 수정한 경우를 감지할 수 없으므로
+ *    불변 값 (문자열, 숫자, Boolean, Enum) 이 아닌 값이 있는 컨텍스트는 비교하지 않고 항상 update 한다.
+ *
+ * 잡 ExecutionContext 는 드물게 저장되므로 그대로 delegate 에 위임한다.
+ */
+public class ChangeSkippingExecutionContextDao implements ExecutionContextDao {
+
+    private static final int MAX_TRACKED_STEP_EXECUTIONS = 10_000;
+
+    private ExecutionContextDao delegate;
+
+    private final Map<Long, Map<String, Object>> lastWrittenContexts = Collections.synchronizedMap(
+        new LinkedHashMap<Long, Map<String, Object>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<Long, Map<String, Object>> eldest) {
+                return size() > MAX_TRACKED_STEP_EXECUTIONS;
+            }
+        });
+
+    public ChangeSkippingExecutionContextDao(ExecutionContextDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+        return delegate.getExecutionContext(jobExecution);
+    }
+
+    @Override
+    public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+        return delegate.getExecutionContext(stepExecution);
+    }
+
+    @Override
+    public void saveExecutionContext(JobExecution jobExecution) {
+        delegate.saveExecutionContext(jobExecution);
+    }
+
+    @Override
+    public void saveExecutionContext(StepExecution stepExecution) {
+        delegate.saveExecutionContext(stepExecution);
+        track(stepExecution);
+    }
+
+    @Override
+    public void saveExecutionContexts(Collection<StepExecution> stepExecutions) {
+        delegate.saveExecutionContexts(stepExecutions);
+        for (StepExecution stepExecution : stepExecutions) {
+            track(stepExecution);
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    /**
+     * 복사본은 트랜잭션이 커밋된 이후에 기록한다.
+     * -> 롤백된 청크를 다시 처리하면 롤백 전과 같은 컨텍스트가 만들어지는데, 이때 update 를 생략하면 안되기 때문이다.
+     */
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        Long stepExecutionId = stepExecution.getId();
+        Map<String, Object> snapshot = snapshot(stepExecution.getExecutionContext());
+        Map<String, Object> lastWritten = lastWrittenContexts.get(stepExecutionId);
+        if (snapshot != null && snapshot.equals(lastWritten)) {
+            return;
+        }
+
+        delegate.updateExecutionContext(stepExecution);
+
+        lastWrittenContexts.remove(stepExecutionId);
+        if (snapshot == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWrittenContexts.put(stepExecutionId, snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    lastWrittenContexts.put(stepExecutionId, snapshot);
+                }
+            }
+        });
+    }
+
+    private void track(StepExecution stepExecution) {
+        Map<String, Object> snapshot = snapshot(stepExecution.getExecutionContext());
+        if (snapshot != null) {
+            lastWrittenContexts.put(stepExecution.getId(), snapshot);
+        }
+    }
+
+    /**
+     * @return 컨텍스트의 복사본, 불변 값이 아닌 값이 있다면 null
+     */
+    private static Map<String, Object> snapshot(ExecutionContext executionContext) {
+        Map<String, Object> snapshot = new HashMap<>();
+        for (Entry<String, Object> entry : executionContext.entrySet()) {
+            if (!isImmutable(entry.getValue())) {
+                return null;
+            }
+            snapshot.put(entry.getKey(), entry.getValue());
+        }
+        return snapshot;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long
+            || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte
+            || value instanceof Boolean || value instanceof Character || value instanceof Enum;
+    }
+}
@@ -1,15 +1,11 @@
 package me.nuc.chapter05;
 
-import java.util.List;
 import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobExecution;
-import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
@@ -28,12 +24,20 @@ public class Chapter05Application {
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    /**
+     * JobRepository 와 같은 DataSource, 테이블 접두어를 사용한다.
+     */
     @Autowired
-    private JobExplorer jobExplorer;
+    private CustomBatchConfigurer batchConfigurer;
+
+    @Bean
+    public JobHistoryReporter jobHistoryReporter() {
+        return new JobHistoryReporter(batchConfigurer.getDataSource(), batchConfigurer.getTablePrefix(), 1_000);
+    }
 
     @Bean
     public Tasklet explorerTasklet() {
-        return new ExploringTasklet(jobExplorer);
+        return new ExploringTasklet(jobHistoryReporter());
     }
 
     @Bean
@@ -50,12 +54,16 @@ public class Chapter05Application {
             .build();
     }
 
+    /**
+     * JobExplorer 로 모든 인스턴스와 실행을 조회하는 대신 (N+1 쿼리, 전체 이력을 메모리에 적재)
+     * JobHistoryReporter 로 페이지 단위로 조회하며 통계만 출력한다.
+     */
     public static class ExploringTasklet implements Tasklet {
 
-        private JobExplorer explorer;
+        private JobHistoryReporter reporter;
 
-        public ExploringTasklet(JobExplorer explorer) {
-            this.explorer = explorer;
+        public ExploringTasklet(JobHistoryReporter reporter) {
+            this.reporter = reporter;
         }
 
         @Override
@@ -64,26 +72,12 @@ public class Chapter05Application {
             ChunkContext chunkContext
         ) throws Exception {
             String jobName = chunkContext.getStepContext().getJobName();
-            List<JobInstance> instances = explorer.getJobInstances(jobName, 0, Integer.MAX_VALUE);
+            JobHistoryReporter.JobHistory history = reporter.report(jobName);
 
-            System.out.println(
-                String.format("There are %d job instances for the job %s", instances.size(),
-                    jobName));
-            System.out.println("They have had the following results");
             System.out.println("****************************************************************");
-
-            for (JobInstance instance : instances) {
-                List<JobExecution> jobExecutions = explorer.getJobExecutions(instance);
-                System.out.println(
-                    String.format("Instance %d had %d executions", instance.getInstanceId(),
-                        jobExecutions.size()));
-
-                for (JobExecution jobExecution : jobExecutions) {
-                    System.out.println(String.format("\tExecution %d resulted in ExitStatus %s",
-                        jobExecution.getId(), jobExecution.getExitStatus()));
-                }
+            for (String line : history.toLines()) {
+                System.out.println(line);
             }
-
             return RepeatStatus.FINISHED;
         }
     }
@@ -0,0 +1,68 @@
+package me.nuc.chapter05;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+/**
+ * 직렬화된 크기가 compressionThreshold 이상인 ExecutionContext 를 gzip 으로 압축하는 ExecutionContextSerializer
+ * -> JdbcExecutionContextDao 는 2500 자를 넘는 컨텍스트를 SERIALIZED_CONTEXT (LOB) 컬럼에 쓰므로, 압축하면 LOB 쓰기를 줄일 수 있다.
+ * -> DAO 는 직렬화 결과를 문자열로 저장하기 때문에 압축된 바이트는 PREFIX 를 붙인 Base64 로 기록한다.
+ * -> PREFIX 로 시작하지 않는 컨텍스트는 delegate 로 그대로 읽으므로 기존에 저장된 컨텍스트도 읽을 수 있다.
+ */
+public class CompressingExecutionContextSerializer implements ExecutionContextSerializer {
+
+    private static final byte[] PREFIX = "GZ:".getBytes(StandardCharsets.US_ASCII);
+
+    private ExecutionContextSerializer delegate;
+    private int compressionThreshold;
+
+    public CompressingExecutionContextSerializer(ExecutionContextSerializer delegate, int compressionThreshold) {
+        this.delegate = delegate;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void serialize(Map<String, Object> context, OutputStream out) throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        delegate.serialize(context, serialized);
+
+        if (serialized.size() < compressionThreshold) {
+            serialized.writeTo(out);
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(serialized.size() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            serialized.writeTo(gzip);
+        }
+        out.write(PREFIX);
+        out.write(Base64.getEncoder().encode(compressed.toByteArray()));
+    }
+
+    @Override
+    public Map<String, Object> deserialize(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        in.mark(PREFIX.length);
+        byte[] head = in.readNBytes(PREFIX.length);
+        if (!Arrays.equals(head, PREFIX)) {
+            in.reset();
+            return delegate.deserialize(in);
+        }
+
+        byte[] compressed = Base64.getDecoder().decode(in.readAllBytes());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return delegate.deserialize(gzip);
+        }
+    }
+}
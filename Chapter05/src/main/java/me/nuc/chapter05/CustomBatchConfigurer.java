@@ -4,35 +4,87 @@ import javax.sql.DataSource;
 import org.springframework.batch.core.configuration.annotation.DefaultBatchConfigurer;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.ExecutionContextDao;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
-import org.springframework.batch.support.DatabaseType;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+/**
+ * JobRepository / JobExplorer 설정
+ * -> 기본 DataSource 와 spring.batch.jdbc.table-prefix 의 테이블 접두어를 사용한다. (FOO_ 테이블을 사용한다면 FOO_ 로 지정)
+ * -> 메타데이터 테이블을 직접 조회하는 JobHistoryReporter, JobRepositoryArchiveTasklet 도 같은 DataSource 와 접두어를 사용하도록
+ *    getDataSource(), getTablePrefix() 를 제공한다.
+ * -> DatabaseType 은 DataSource 의 메타데이터로 판단한다. (MySQL, 테스트용 임베디드 DB)
+ */
+@Component
 public class CustomBatchConfigurer extends DefaultBatchConfigurer {
 
-    @Autowired
-    @Qualifier("repositoryDataSource")
-    private DataSource dataSource;
+    private final DataSource dataSource;
+    private final String tablePrefix;
 
-    @Autowired
-    @Qualifier("batchTransactionManager")
-    private PlatformTransactionManager transactionManager;
+    /**
+     * JobExecution 을 생성할 때 사용하는 격리 수준
+     * -> 같은 잡을 동시에 여러번 실행하는 경우가 없다면 ISOLATION_READ_COMMITTED 로 낮춰 락 대기를 줄일 수 있다.
+     */
+    @Value("${batch.repository.isolation-level-for-create:ISOLATION_REPEATABLE_READ}")
+    private String isolationLevelForCreate;
 
-    @Override
-    public PlatformTransactionManager getTransactionManager() {
-        return transactionManager;
+    /**
+     * 병렬 스텝이 많은 환경을 위한 모드
+     * -> 변경되지 않은 스텝 ExecutionContext 는 커밋마다 다시 쓰지 않는다. (ChangeSkippingExecutionContextDao)
+     * -> compressionThreshold 바이트 이상으로 직렬화되는 컨텍스트는 압축해서 저장한다. (CompressingExecutionContextSerializer)
+     */
+    @Value("${batch.repository.low-contention:false}")
+    private boolean lowContention;
+
+    @Value("${batch.repository.compression-threshold:2500}")
+    private int compressionThreshold;
+
+    /**
+     * true 라면 ExecutionContext 를 JSON 대신 BinaryExecutionContextSerializer 의 바이너리 포맷으로 저장한다.
+     */
+    @Value("${batch.repository.binary-context:false}")
+    private boolean binaryContext;
+
+    /**
+     * 직렬화된 ExecutionContext 가 이 크기 (바이트) 를 넘으면 경고 로그를 남긴다.
+     */
+    @Value("${batch.repository.context-warn-threshold:65536}")
+    private int contextWarnThreshold;
+
+    public CustomBatchConfigurer(DataSource dataSource, @Value("${spring.batch.jdbc.table-prefix:BATCH_}") String tablePrefix) {
+        super(dataSource);
+        this.dataSource = dataSource;
+        this.tablePrefix = tablePrefix;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public String getTablePrefix() {
+        return tablePrefix;
     }
 
     @Override
     protected JobRepository createJobRepository() throws Exception {
-        JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean();
-        factoryBean.setDatabaseType(DatabaseType.MYSQL.getProductName());
-        factoryBean.setTablePrefix("FOO_");
-        factoryBean.setIsolationLevelForCreate("ISOLATION_REPEATABLE_READ");
+        JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean() {
+            @Override
+            protected ExecutionContextDao createExecutionContextDao() throws Exception {
+                ExecutionContextDao executionContextDao = super.createExecutionContextDao();
+                return lowContention
+                    ? new ChangeSkippingExecutionContextDao(executionContextDao)
+                    : executionContextDao;
+            }
+        };
+        factoryBean.setTablePrefix(tablePrefix);
+        factoryBean.setIsolationLevelForCreate(isolationLevelForCreate);
+        factoryBean.setSerializer(executionContextSerializer());
         factoryBean.setDataSource(dataSource);
+        factoryBean.setTransactionManager(getTransactionManager());
         factoryBean.afterPropertiesSet();
         return factoryBean.getObject();
     }
@@ -41,8 +93,23 @@ public class CustomBatchConfigurer extends DefaultBatchConfigurer {
     protected JobExplorer createJobExplorer() throws Exception {
         JobExplorerFactoryBean factoryBean = new JobExplorerFactoryBean();
         factoryBean.setDataSource(dataSource);
-        factoryBean.setTablePrefix("FOO_");
+        factoryBean.setTablePrefix(tablePrefix);
+        factoryBean.setSerializer(executionContextSerializer());
         factoryBean.afterPropertiesSet();
         return factoryBean.getObject();
     }
+
+    /**
+     * 압축된 컨텍스트와 바이너리 컨텍스트는 설정을 끈 뒤에도 읽을 수 있어야 하므로 읽기는 항상 두 serializer 를 거친다.
+     * -> 설정이 꺼져 있다면 압축하지 않고, JSON 으로 저장한다.
+     */
+    private ExecutionContextSerializer executionContextSerializer() {
+        ExecutionContextSerializer jsonSerializer = new CompressingExecutionContextSerializer(
+            new Jackson2ExecutionContextStringSerializer(), lowContention ? compressionThreshold : Integer.MAX_VALUE);
+
+        BinaryExecutionContextSerializer serializer = new BinaryExecutionContextSerializer(jsonSerializer);
+        serializer.setWriteBinary(binaryContext);
+        serializer.setWarnThreshold(contextWarnThreshold);
+        return serializer;
+    }
 }
@@ -0,0 +1,147 @@
+package me.nuc.chapter05;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * JobExplorer 대신 잡 메타데이터 테이블을 직접 조회해 잡 실행 이력 통계를 만든다.
+ * -> JobExplorer.getJobInstances(jobName, 0, Integer.MAX_VALUE) 는 모든 인스턴스를 한번에 메모리에 올리고,
+ *    인스턴스마다 getJobExecutions(instance) 를 호출하므로 N+1 쿼리가 발생한다.
+ * -> JOB_INSTANCE 를 JOB_INSTANCE_ID 기준으로 pageSize 만큼씩 조회하고 (keyset paging),
+ *    한 페이지에 속한 인스턴스들의 JOB_EXECUTION 은 IN 절로 한번에 조회한다.
+ * -> 조회한 행은 바로 통계에 반영하고 버리므로 이력의 크기와 상관없이 일정한 메모리를 사용한다.
+ *
+ * 테이블 접두어는 JobRepository 와 같아야 한다. (CustomBatchConfigurer.getTablePrefix())
+ */
+public class JobHistoryReporter {
+
+    private static final String GET_INSTANCE_IDS =
+        "select JOB_INSTANCE_ID from %sJOB_INSTANCE "
+        + "where JOB_NAME = ? and JOB_INSTANCE_ID > ? "
+        + "order by JOB_INSTANCE_ID limit ?";
+
+    private static final String GET_EXECUTIONS =
+        "select START_TIME, END_TIME, EXIT_CODE from %sJOB_EXECUTION "
+        + "where JOB_INSTANCE_ID in (:instanceIds)";
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private String tablePrefix;
+    private int pageSize;
+
+    public JobHistoryReporter(DataSource dataSource, String tablePrefix, int pageSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.tablePrefix = tablePrefix;
+        this.pageSize = pageSize;
+    }
+
+    public JobHistory report(String jobName) {
+        JobHistory history = new JobHistory(jobName);
+        long lastInstanceId = -1;
+
+        while (true) {
+            List<Long> instanceIds = jdbcTemplate.queryForList(
+                String.format(GET_INSTANCE_IDS, tablePrefix), Long.class, jobName, lastInstanceId, pageSize);
+            if (instanceIds.isEmpty()) {
+                break;
+            }
+
+            history.instanceCount += instanceIds.size();
+            namedParameterJdbcTemplate.query(
+                String.format(GET_EXECUTIONS, tablePrefix),
+                Collections.singletonMap("instanceIds", instanceIds),
+                rs -> {
+                    history.add(rs.getString("EXIT_CODE"), rs.getTimestamp("START_TIME"), rs.getTimestamp("END_TIME"));
+                });
+
+            lastInstanceId = instanceIds.get(instanceIds.size() - 1);
+            if (instanceIds.size() < pageSize) {
+                break;
+            }
+        }
+        return history;
+    }
+
+    /**
+     * 잡 실행 이력 통계
+     * -> 실행시간은 시작/종료 시간이 모두 기록된 실행만 집계한다.
+     */
+    public static class JobHistory {
+
+        private final String jobName;
+        private long instanceCount;
+        private long executionCount;
+        private final Map<String, Long> exitCodeCounts = new TreeMap<>();
+
+        private long completedExecutionCount;
+        private long totalDurationMillis;
+        private long minDurationMillis = Long.MAX_VALUE;
+        private long maxDurationMillis;
+
+        JobHistory(String jobName) {
+            this.jobName = jobName;
+        }
+
+        void add(String exitCode, Timestamp startTime, Timestamp endTime) {
+            executionCount++;
+            exitCodeCounts.merge(exitCode, 1L, Long::sum);
+
+            if (startTime != null && endTime != null) {
+                long duration = endTime.getTime() - startTime.getTime();
+                completedExecutionCount++;
+                totalDurationMillis += duration;
+                minDurationMillis = Math.min(minDurationMillis, duration);
+                maxDurationMillis = Math.max(maxDurationMillis, duration);
+            }
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public long getInstanceCount() {
+            return instanceCount;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public Map<String, Long> getExitCodeCounts() {
+            return exitCodeCounts;
+        }
+
+        public long getAverageDurationMillis() {
+            return completedExecutionCount == 0 ? 0 : totalDurationMillis / completedExecutionCount;
+        }
+
+        public long getMinDurationMillis() {
+            return completedExecutionCount == 0 ? 0 : minDurationMillis;
+        }
+
+        public long getMaxDurationMillis() {
+            return maxDurationMillis;
+        }
+
+        public List<String> toLines() {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("There are %d job instances and %d executions for the job %s",
+                instanceCount, executionCount, jobName));
+            lines.add("They have had the following results");
+            for (Map.Entry<String, Long> entry : exitCodeCounts.entrySet()) {
+                lines.add(String.format("\tExitStatus %s : %d executions", entry.getKey(), entry.getValue()));
+            }
+            lines.add(String.format("Duration (ms) avg %d, min %d, max %d",
+                getAverageDurationMillis(), getMinDurationMillis(), getMaxDurationMillis()));
+            return lines;
+        }
+    }
+}
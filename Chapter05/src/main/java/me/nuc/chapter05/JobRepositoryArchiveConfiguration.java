@@ -0,0 +1,91 @@
+package me.nuc.chapter05;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.util.StreamUtils;
+
+/**
+ * 잡 메타데이터 아카이브 잡 설정
+ * -> 메타데이터를 삭제하는 잡이므로 batch.archive.enabled=true 일 때만 등록한다. (애플리케이션을 시작할 때마다 실행되지 않도록)
+ *    예) --batch.archive.enabled=true --spring.batch.job.names=archiveJob
+ * -> DataSource 와 테이블 접두어는 JobRepository 를 만드는 CustomBatchConfigurer 의 것을 사용한다.
+ * -> 아카이브 테이블은 schema-archive-{platform}.sql 로 생성한다. (스크립트의 BATCH_ 는 테이블 접두어로 바꿔서 실행)
+ */
+@Configuration
+@ConditionalOnProperty(name = "batch.archive.enabled", havingValue = "true")
+public class JobRepositoryArchiveConfiguration {
+
+    @Autowired
+    private JobBuilderFactory jobBuilderFactory;
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    private CustomBatchConfigurer batchConfigurer;
+
+    @Bean
+    public DataSourceInitializer archiveSchemaInitializer() throws Exception {
+        DataSource dataSource = batchConfigurer.getDataSource();
+        String platform = DatabaseType.fromMetaData(dataSource).name().toLowerCase();
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+            archiveSchema("schema-archive-" + platform + ".sql", batchConfigurer.getTablePrefix()));
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(populator);
+        return initializer;
+    }
+
+    @Bean
+    public JobRepositoryArchiveTasklet archiveTasklet(
+        @Value("${batch.archive.max-age-days:30}") long maxAgeDays,
+        @Value("${batch.archive.batch-size:100}") int batchSize
+    ) {
+        String tablePrefix = batchConfigurer.getTablePrefix();
+        return new JobRepositoryArchiveTasklet(batchConfigurer.getDataSource(), tablePrefix, tablePrefix + "ARCHIVE_",
+            TimeUnit.DAYS.toMillis(maxAgeDays), batchSize);
+    }
+
+    @Bean
+    public Step archiveStep(JobRepositoryArchiveTasklet archiveTasklet) {
+        return this.stepBuilderFactory.get("archiveStep")
+            .tasklet(archiveTasklet)
+            .build();
+    }
+
+    @Bean
+    public Job archiveJob() {
+        return this.jobBuilderFactory.get("archiveJob")
+            .incrementer(new RunIdIncrementer())
+            .start(archiveStep(null))
+            .build();
+    }
+
+    /**
+     * 스크립트의 BATCH_ 접두어를 tablePrefix 로 바꾼다. (BATCH_ARCHIVE_JOB_INSTANCE -> {tablePrefix}ARCHIVE_JOB_INSTANCE)
+     */
+    static ByteArrayResource archiveSchema(String location, String tablePrefix) throws Exception {
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            String script = StreamUtils.copyToString(in, StandardCharsets.UTF_8).replace("BATCH_", tablePrefix);
+            return new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8), location);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package me.nuc.chapter05;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * 오래된 잡 메타데이터를 아카이브 테이블로 옮기는 Tasklet
+ * -> 메타데이터 테이블이 계속 커지면 getNextJobParameters, 재시작 조회, JobExplorer 조회가 점점 느려진다.
+ * -> maxAgeMillis 이전에 COMPLETED 로 끝났고, 그 이후 실행된 적 없는 잡 인스턴스를
+ *    실행, 파라미터, ExecutionContext, 스텝 실행과 함께 archiveTablePrefix 테이블로 옮긴다. (insert ... select 후 delete)
+ * -> 잡 이름별 가장 마지막 인스턴스는 옮기지 않는다. (incrementer 가 다음 파라미터를 계산할 때 사용)
+ *
+ * 한번의 execute 호출 (하나의 트랜잭션) 에서 batchSize 개의 인스턴스를 옮기고,
+ * 옮길 인스턴스가 남아있다면 CONTINUABLE 을 반환해 다음 트랜잭션에서 이어서 옮긴다.
+ * -> 옮긴 행 수와 걸린 시간은 스텝 ExecutionContext 에 누적하고, 끝나면 로그로 남긴다.
+ *
+ * 아카이브 테이블은 미리 만들어져 있어야 한다. (schema-archive-{platform}.sql, JobRepositoryArchiveConfiguration 참고)
+ */
+public class JobRepositoryArchiveTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRepositoryArchiveTasklet.class);
+
+    private static final String ROWS_MOVED_KEY = "archive.rows.moved";
+    private static final String INSTANCES_MOVED_KEY = "archive.instances.moved";
+    private static final String ELAPSED_MILLIS_KEY = "archive.elapsed.millis";
+
+    /**
+     * 옮기는 순서 (삭제는 역순으로 한다.)
+     */
+    private static final String[] TABLES = {
+        "JOB_INSTANCE",
+        "JOB_EXECUTION",
+        "JOB_EXECUTION_PARAMS",
+        "JOB_EXECUTION_CONTEXT",
+        "STEP_EXECUTION",
+        "STEP_EXECUTION_CONTEXT"
+    };
+
+    private static final String FIND_ARCHIVABLE_INSTANCES =
+        "select i.JOB_INSTANCE_ID from %1$sJOB_INSTANCE i "
+        + "where i.JOB_INSTANCE_ID < (select max(l.JOB_INSTANCE_ID) from %1$sJOB_INSTANCE l where l.JOB_NAME = i.JOB_NAME) "
+        + "and exists (select 1 from %1$sJOB_EXECUTION e where e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID "
+        + "and e.STATUS = 'COMPLETED' and e.END_TIME < ?) "
+        + "and not exists (select 1 from %1$sJOB_EXECUTION e where e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID "
+        + "and (e.END_TIME is null or e.END_TIME >= ?)) "
+        + "order by i.JOB_INSTANCE_ID limit ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private String tablePrefix;
+    private String archiveTablePrefix;
+    private long maxAgeMillis;
+    private int batchSize;
+
+    public JobRepositoryArchiveTasklet(DataSource dataSource, String tablePrefix, String archiveTablePrefix,
+        long maxAgeMillis, int batchSize) {
+        // batchSize 가 0 이면 조회 결과 (0건) 가 항상 batchSize 와 같아 CONTINUABLE 을 끝없이 반환한다.
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than zero");
+        Assert.isTrue(maxAgeMillis >= 0, "maxAgeMillis must not be negative");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.tablePrefix = tablePrefix;
+        this.archiveTablePrefix = archiveTablePrefix;
+        this.maxAgeMillis = maxAgeMillis;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(
+        StepContribution contribution,
+        ChunkContext chunkContext
+    ) throws Exception {
+        long start = System.nanoTime();
+        ExecutionContext stepContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - maxAgeMillis);
+        List<Long> instanceIds = jdbcTemplate.queryForList(
+            String.format(FIND_ARCHIVABLE_INSTANCES, tablePrefix), Long.class, cutoff, cutoff, batchSize);
+
+        long rowsMoved = instanceIds.isEmpty() ? 0 : archive(instanceIds);
+        contribution.incrementWriteCount(instanceIds.size());
+
+        stepContext.putLong(ROWS_MOVED_KEY, stepContext.getLong(ROWS_MOVED_KEY, 0) + rowsMoved);
+        stepContext.putLong(INSTANCES_MOVED_KEY, stepContext.getLong(INSTANCES_MOVED_KEY, 0) + instanceIds.size());
+        stepContext.putLong(ELAPSED_MILLIS_KEY, stepContext.getLong(ELAPSED_MILLIS_KEY, 0)
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (instanceIds.size() == batchSize) {
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        log.info("Archived {} job instances ({} rows) older than {} into {}* tables in {} ms",
+            stepContext.getLong(INSTANCES_MOVED_KEY), stepContext.getLong(ROWS_MOVED_KEY), cutoff,
+            archiveTablePrefix, stepContext.getLong(ELAPSED_MILLIS_KEY));
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * @return 아카이브 테이블로 옮긴 행 수
+     */
+    private long archive(List<Long> instanceIds) {
+        Map<String, List<Long>> params = Collections.singletonMap("instanceIds", instanceIds);
+
+        long rowsMoved = 0;
+        for (String table : TABLES) {
+            rowsMoved += namedParameterJdbcTemplate.update(String.format("insert into %s%s select * from %s%s where %s",
+                archiveTablePrefix, table, tablePrefix, table, instanceCondition(table)), params);
+        }
+        for (int i = TABLES.length - 1; i >= 0; i--) {
+            namedParameterJdbcTemplate.update(String.format("delete from %s%s where %s",
+                tablePrefix, TABLES[i], instanceCondition(TABLES[i])), params);
+        }
+        return rowsMoved;
+    }
+
+    /**
+     * 각 테이블에서 옮길 인스턴스에 속한 행을 찾는 조건
+     */
+    private String instanceCondition(String table) {
+        String jobExecutionIds = String.format(
+            "select JOB_EXECUTION_ID from %sJOB_EXECUTION where JOB_INSTANCE_ID in (:instanceIds)", tablePrefix);
+
+        switch (table) {
+            case "JOB_INSTANCE":
+            case "JOB_EXECUTION":
+                return "JOB_INSTANCE_ID in (:instanceIds)";
+            case "JOB_EXECUTION_PARAMS":
+            case "JOB_EXECUTION_CONTEXT":
+            case "STEP_EXECUTION":
+                return "JOB_EXECUTION_ID in (" + jobExecutionIds + ")";
+            case "STEP_EXECUTION_CONTEXT":
+                return String.format("STEP_EXECUTION_ID in (select STEP_EXECUTION_ID from %sSTEP_EXECUTION "
+                    + "where JOB_EXECUTION_ID in (%s))", tablePrefix, jobExecutionIds);
+            default:
+                throw new IllegalArgumentException("Unknown table " + table);
+        }
+    }
+}
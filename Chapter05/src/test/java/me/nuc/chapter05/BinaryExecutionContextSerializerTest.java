@@ -0,0 +1,106 @@
+package me.nuc.chapter05;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+
+class BinaryExecutionContextSerializerTest {
+
+    private final BinaryExecutionContextSerializer serializer =
+        new BinaryExecutionContextSerializer(new Jackson2ExecutionContextStringSerializer());
+
+    @Test
+    void roundTripsSupportedTypes() throws Exception {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("count", 3);
+        nested.put("names", new ArrayList<>(Arrays.asList("a", "b", "a")));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("string", "한글 value");
+        context.put("int", -42);
+        context.put("long", Long.MAX_VALUE);
+        context.put("double", 1.5d);
+        context.put("float", 2.5f);
+        context.put("true", true);
+        context.put("false", false);
+        context.put("date", new Date(1_600_000_000_000L));
+        context.put("null", null);
+        context.put("set", new HashSet<>(Arrays.asList(1L, 2L)));
+        context.put("map", nested);
+
+        byte[] serialized = serialize(serializer, context);
+
+        assertThat(new String(serialized, StandardCharsets.US_ASCII)).startsWith("BIN1:");
+        assertThat(deserialize(serializer, serialized)).isEqualTo(context);
+    }
+
+    @Test
+    void roundTripsCompressedContext() throws Exception {
+        serializer.setCompressionThreshold(16);
+        Map<String, Object> context = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            context.put("key." + i, "value " + (i % 10));
+        }
+
+        byte[] serialized = serialize(serializer, context);
+
+        assertThat(deserialize(serializer, serialized)).isEqualTo(context);
+        assertThat(serialized.length).isLessThan(serialize(new Jackson2ExecutionContextStringSerializer(), context).length);
+    }
+
+    /**
+     * JdbcExecutionContextDao 는 직렬화 결과를 UTF-8 문자열로 저장하므로 문자열로 바꿨다 되돌려도 읽을 수 있어야 한다.
+     */
+    @Test
+    void survivesStringColumnRoundTrip() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put("long", -1L);
+        context.put("double", Double.NaN);
+
+        String stored = new String(serialize(serializer, context), StandardCharsets.UTF_8);
+
+        assertThat(deserialize(serializer, stored.getBytes(StandardCharsets.UTF_8))).isEqualTo(context);
+    }
+
+    @Test
+    void unsupportedTypesAndExistingContextsUseTheDelegate() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put("unsupported", new TreeMap<>(Collections.singletonMap("a", 1)));
+        context.put("long", 1L);
+
+        byte[] serialized = serialize(serializer, context);
+        assertThat(new String(serialized, StandardCharsets.UTF_8)).doesNotStartWith("BIN1:");
+
+        serializer.setWriteBinary(false);
+        Map<String, Object> json = new HashMap<>();
+        json.put("long", 1L);
+        byte[] jsonSerialized = serialize(serializer, json);
+
+        assertThat(deserialize(new BinaryExecutionContextSerializer(new Jackson2ExecutionContextStringSerializer()),
+            jsonSerialized)).isEqualTo(json);
+    }
+
+    private static byte[] serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(context, out);
+        return out.toByteArray();
+    }
+
+    private static Map<String, Object> deserialize(ExecutionContextSerializer serializer, byte[] serialized)
+        throws Exception {
+        return serializer.deserialize(new ByteArrayInputStream(serialized));
+    }
+}
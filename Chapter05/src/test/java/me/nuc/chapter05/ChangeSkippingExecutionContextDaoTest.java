@@ -0,0 +1,106 @@
+package me.nuc.chapter05;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.dao.ExecutionContextDao;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ChangeSkippingExecutionContextDaoTest {
+
+    private final CountingExecutionContextDao delegate = new CountingExecutionContextDao();
+    private final ChangeSkippingExecutionContextDao dao = new ChangeSkippingExecutionContextDao(delegate);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @Test
+    void unchangedContextIsNotWrittenAgain() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.getExecutionContext().putLong("read.count", 10);
+        dao.saveExecutionContext(stepExecution);
+
+        update(stepExecution);
+        stepExecution.getExecutionContext().putLong("read.count", 20);
+        update(stepExecution);
+        update(stepExecution);
+
+        assertThat(delegate.updates).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackUpdateIsWrittenAgain() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        dao.saveExecutionContext(stepExecution);
+
+        stepExecution.getExecutionContext().putLong("read.count", 20);
+        transactionTemplate.executeWithoutResult(status -> {
+            dao.updateExecutionContext(stepExecution);
+            status.setRollbackOnly();
+        });
+        update(stepExecution);
+        update(stepExecution);
+
+        assertThat(delegate.updates).isEqualTo(2);
+    }
+
+    @Test
+    void contextWithMutableValueIsAlwaysWritten() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        List<String> names = new ArrayList<>();
+        stepExecution.getExecutionContext().put("names", names);
+        dao.saveExecutionContext(stepExecution);
+
+        update(stepExecution);
+        names.add("a");
+        update(stepExecution);
+
+        assertThat(delegate.updates).isEqualTo(2);
+    }
+
+    private void update(StepExecution stepExecution) {
+        transactionTemplate.executeWithoutResult(status -> dao.updateExecutionContext(stepExecution));
+    }
+
+    private static class CountingExecutionContextDao implements ExecutionContextDao {
+
+        private int updates;
+
+        @Override
+        public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+            return new ExecutionContext();
+        }
+
+        @Override
+        public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+            return new ExecutionContext();
+        }
+
+        @Override
+        public void saveExecutionContext(JobExecution jobExecution) {
+        }
+
+        @Override
+        public void saveExecutionContext(StepExecution stepExecution) {
+        }
+
+        @Override
+        public void saveExecutionContexts(Collection<StepExecution> stepExecutions) {
+        }
+
+        @Override
+        public void updateExecutionContext(JobExecution jobExecution) {
+        }
+
+        @Override
+        public void updateExecutionContext(StepExecution stepExecution) {
+            updates++;
+        }
+    }
+}
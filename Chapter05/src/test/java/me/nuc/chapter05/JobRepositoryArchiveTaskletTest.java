@@ -0,0 +1,132 @@
+package me.nuc.chapter05;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class JobRepositoryArchiveTaskletTest {
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+            .build();
+        new ResourceDatabasePopulator(JobRepositoryArchiveConfiguration.archiveSchema("schema-archive-h2.sql", "BATCH_"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        factoryBean.afterPropertiesSet();
+        jobRepository = factoryBean.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void archivesOldCompletedInstancesExceptTheLastOfEachJob() throws Exception {
+        Date old = new Date(System.currentTimeMillis() - 2 * MAX_AGE_MILLIS);
+        Date recent = new Date();
+
+        long a1 = run("a", 1, BatchStatus.COMPLETED, old);
+        long a2 = run("a", 2, BatchStatus.COMPLETED, old);
+        run("a", 3, BatchStatus.COMPLETED, old); // 잡의 마지막 인스턴스
+        run("b", 1, BatchStatus.COMPLETED, old); // 유일한 인스턴스
+        run("c", 1, BatchStatus.FAILED, old); // 완료되지 않은 인스턴스
+        run("c", 2, BatchStatus.COMPLETED, recent);
+        run("d", 1, BatchStatus.COMPLETED, recent); // 최근에 완료된 인스턴스
+        run("d", 2, BatchStatus.COMPLETED, recent);
+
+        JobRepositoryArchiveTasklet tasklet = new JobRepositoryArchiveTasklet(
+            dataSource, "BATCH_", "BATCH_ARCHIVE_", MAX_AGE_MILLIS, 1);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepContribution contribution = stepExecution.createStepContribution();
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+        assertThat(tasklet.execute(contribution, chunkContext)).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(tasklet.execute(contribution, chunkContext)).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(tasklet.execute(contribution, chunkContext)).isEqualTo(RepeatStatus.FINISHED);
+
+        assertThat(jdbcTemplate.queryForList("select JOB_INSTANCE_ID from BATCH_ARCHIVE_JOB_INSTANCE order by 1", Long.class))
+            .containsExactly(a1, a2);
+        assertThat(count("BATCH_JOB_INSTANCE")).isEqualTo(6);
+
+        String[] tables = {"JOB_INSTANCE", "JOB_EXECUTION", "JOB_EXECUTION_PARAMS", "JOB_EXECUTION_CONTEXT",
+            "STEP_EXECUTION", "STEP_EXECUTION_CONTEXT"};
+        for (String table : tables) {
+            assertThat(count("BATCH_ARCHIVE_" + table)).as(table).isEqualTo(2);
+            assertThat(count("BATCH_" + table)).as(table).isEqualTo(6);
+        }
+
+        assertThat(stepExecution.getExecutionContext().getLong("archive.instances.moved")).isEqualTo(2);
+        assertThat(stepExecution.getExecutionContext().getLong("archive.rows.moved")).isEqualTo(12);
+        assertThat(contribution.getWriteCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new JobRepositoryArchiveTasklet(dataSource, "BATCH_", "BATCH_ARCHIVE_", MAX_AGE_MILLIS, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JobRepositoryArchiveTasklet(dataSource, "BATCH_", "BATCH_ARCHIVE_", -1, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * @return 생성한 잡 인스턴스 ID
+     */
+    private long run(String jobName, long run, BatchStatus status, Date endTime) throws Exception {
+        JobExecution jobExecution = jobRepository.createJobExecution(jobName,
+            new JobParametersBuilder().addLong("run.id", run).toJobParameters());
+
+        StepExecution stepExecution = jobExecution.createStepExecution("step");
+        stepExecution.setStartTime(endTime);
+        jobRepository.add(stepExecution);
+        stepExecution.setStatus(status);
+        stepExecution.setEndTime(endTime);
+        jobRepository.update(stepExecution);
+
+        jobExecution.setStartTime(endTime);
+        jobExecution.setStatus(status);
+        jobExecution.setEndTime(endTime);
+        jobRepository.update(jobExecution);
+        return jobExecution.getJobInstance().getInstanceId();
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
@@ -0,0 +1,67 @@
+package me.june.chapter06.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * 위임 ItemProcessor 를 TaskExecutor 에서 실행하고 결과 대신 Future 를 반환하는 ItemProcessor
+ * -> 청크의 아이템들이 동시에 처리되고, AsyncItemWriter 가 아이템 순서대로 결과를 꺼내 위임 ItemWriter 에 전달한다.
+ * -> 워커 스레드에서도 스텝 스코프 빈을 사용할 수 있도록 현재 StepExecution 을 워커 스레드에 등록한다.
+ *
+ * spring-batch-integration 의 AsyncItemProcessor 와 같은 방식이다.
+ */
+public class AsyncItemProcessor<I, O> implements ItemProcessor<I, Future<O>>, InitializingBean {
+
+    private ItemProcessor<I, O> delegate;
+    private TaskExecutor taskExecutor;
+
+    public AsyncItemProcessor(ItemProcessor<I, O> delegate, TaskExecutor taskExecutor) {
+        this.delegate = delegate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(delegate, "The delegate must be set.");
+        Assert.notNull(taskExecutor, "The taskExecutor must be set.");
+    }
+
+    @Override
+    public Future<O> process(I item) throws Exception {
+        StepExecution stepExecution = getStepExecution();
+
+        FutureTask<O> task = new FutureTask<>(new Callable<O>() {
+            @Override
+            public O call() throws Exception {
+                if (stepExecution != null) {
+                    StepSynchronizationManager.register(stepExecution);
+                }
+                try {
+                    return delegate.process(item);
+                } finally {
+                    if (stepExecution != null) {
+                        StepSynchronizationManager.close();
+                    }
+                }
+            }
+        });
+        taskExecutor.execute(task);
+        return task;
+    }
+
+    private StepExecution getStepExecution() {
+        StepContext context = StepSynchronizationManager.getContext();
+        if (context == null) {
+            return null;
+        }
+        return context.getStepExecution();
+    }
+}
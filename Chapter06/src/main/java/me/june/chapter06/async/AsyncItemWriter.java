@@ -0,0 +1,66 @@
+package me.june.chapter06.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * AsyncItemProcessor 가 반환한 Future 들을 아이템 순서대로 기다려 결과를 위임 ItemWriter 에 전달한다.
+ * -> 프로세서에서 null 을 반환한 (필터링된) 아이템은 제외한다.
+ * -> 처리 중 발생한 예외는 ExecutionException 을 벗겨낸 원래 예외로 던지므로, 스킵/재시도 정책이 그대로 동작한다.
+ */
+public class AsyncItemWriter<T> implements ItemStreamWriter<Future<T>> {
+
+    private ItemWriter<T> delegate;
+
+    public AsyncItemWriter(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(List<? extends Future<T>> items) throws Exception {
+        List<T> list = new ArrayList<>(items.size());
+        for (Future<T> future : items) {
+            try {
+                T item = future.get();
+                if (item != null) {
+                    list.add(item);
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+        delegate.write(list);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package me.june.chapter06.csv;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import me.june.chapter06.csv.domain.Transaction;
+import me.june.chapter06.csv.domain.TransactionDao;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * CREATE_TRANSACTION 의 서브쿼리 (select id from Account_Summary where account_number = ?) 를 제거한 ItemWriter
+ * -> 청크에 포함된 계좌번호 중 캐시에 없는 계좌번호만 모아 한번의 쿼리로 id 를 조회한다.
+ * -> 조회한 id 는 LRU 방식으로 제거되는 크기 제한 캐시에 보관한다.
+ * -> account_summary_id 를 값으로 채운 단순 insert 문을 JDBC 배치로 실행한다.
+ *
+ * 캐시 크기를 조정할 수 있도록 캐시 적중/실패 횟수를 StepExecution 의 ExecutionContext 에 기록한다.
+ * 파티션된 스텝에서는 워커마다 별도의 캐시를 사용하도록 스텝 스코프로 등록해야 한다.
+ */
+public class AccountIdCachingTransactionWriter implements ItemWriter<Transaction> {
+
+    public static final String CACHE_HIT_KEY = "accountIdCache.hit.count";
+    public static final String CACHE_MISS_KEY = "accountIdCache.miss.count";
+
+    private static final String INSERT_TRANSACTION =
+        "insert into Transactions (account_summary_id, timestamp, amount) values (?, ?, ?)";
+
+    private TransactionDao transactionDao;
+    private Map<String, Integer> accountIdCache;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    private StepExecution stepExecution;
+
+    public AccountIdCachingTransactionWriter(TransactionDao transactionDao, int cacheSize) {
+        this.transactionDao = transactionDao;
+        this.accountIdCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public void write(List<? extends Transaction> items) throws Exception {
+        /**
+         * 청크 처리 중 캐시에서 제거되더라도 id 를 잃지 않도록, 청크에서 사용할 id 는 별도의 Map 에 모아둔다.
+         */
+        Map<String, Integer> chunkAccountIds = new HashMap<>();
+        Set<String> missingAccountNumbers = new HashSet<>();
+
+        for (Transaction transaction : items) {
+            String accountNumber = transaction.getAccountNumber();
+            Integer accountId = accountIdCache.get(accountNumber);
+
+            if (accountId != null) {
+                hitCount++;
+                chunkAccountIds.put(accountNumber, accountId);
+            } else if (missingAccountNumbers.add(accountNumber)) {
+                missCount++;
+            } else {
+                hitCount++; // 같은 청크에서 이미 조회 대상에 포함된 계좌
+            }
+        }
+
+        Map<String, Integer> loadedAccountIds = transactionDao.getAccountIdsByAccountNumbers(missingAccountNumbers);
+        chunkAccountIds.putAll(loadedAccountIds);
+        accountIdCache.putAll(loadedAccountIds);
+
+        // 기존 서브쿼리와 동일하게 존재하지 않는 계좌는 account_summary_id 를 null 로 저장한다.
+        List<Object[]> batchArgs = new ArrayList<>(items.size());
+        for (Transaction transaction : items) {
+            batchArgs.add(new Object[]{
+                chunkAccountIds.get(transaction.getAccountNumber()),
+                transaction.getTimestamp() != null ? new Timestamp(transaction.getTimestamp().getTime()) : null,
+                transaction.getAmount()
+            });
+        }
+        transactionDao.batchUpdate(INSERT_TRANSACTION, batchArgs);
+
+        if (stepExecution != null) {
+            stepExecution.getExecutionContext().putLong(CACHE_HIT_KEY, hitCount);
+            stepExecution.getExecutionContext().putLong(CACHE_MISS_KEY, missCount);
+        }
+    }
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+    }
+}
@@ -0,0 +1,151 @@
+package me.june.chapter06.csv;
+
+import java.util.ArrayList;
+import javax.sql.DataSource;
+import me.june.chapter06.csv.domain.AccountSummary;
+import me.june.chapter06.csv.domain.Transaction;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+
+/**
+ * Account_Summary 커서와 Transactions 커서를 계좌번호 순으로 동시에 읽어 병합 조인(merge join) 한다.
+ * -> 두 커서 모두 account_number 로 정렬되어 있으므로, 거래 레코드의 계좌번호가 바뀌는 시점에 현재 계좌의 거래가 끝난것으로 간주한다. (control break logic)
+ * -> 거래내역이 이미 채워진 AccountSummary 를 반환하므로 프로세서에서 계좌마다 추가 쿼리를 수행하지 않아도 된다.
+ * -> 메모리에는 현재 계좌의 거래내역과 미리 읽은 거래 레코드 하나만 유지한다.
+ *
+ * 재시작을 위해 마지막으로 읽은 계좌번호를 ExecutionContext 에 저장하고,
+ * 재시작시 두 커서 모두 저장된 계좌번호 이후부터 조회한다. (읽은 레코드를 건너뛰지 않는다.)
+ *
+ * 병합은 DB 의 ORDER BY 순서와 String.compareTo 순서가 같다는 것을 전제로 한다. (binary collation)
+ * -> 대소문자를 구분하지 않는 collation 등으로 두 순서가 다르면 거래가 조용히 누락될 수 있으므로,
+ *    읽은 계좌번호가 compareTo 기준으로 증가하지 않으면 즉시 예외를 던진다.
+ *
+ * MySQL Connector/J 는 fetchSize 를 지정하지 않으면 결과 전체를 메모리에 올리므로,
+ * 기본값으로 Integer.MIN_VALUE (스트리밍) 를 사용한다. (다른 DB 라면 양수의 fetchSize 를 지정한다.)
+ */
+public class AccountSummaryTransactionReader extends ItemStreamSupport implements ItemStreamReader<AccountSummary> {
+
+    private static final String LAST_ACCOUNT_NUMBER_KEY = "last.account.number";
+
+    private static final String GET_ACCOUNT_SUMMARY =
+        "select a.id, a.account_number, a.current_balance from Account_Summary a "
+        + "where a.account_number > ? "
+        + "and a.id in (select distinct t.account_summary_id from Transactions t) "
+        + "order by a.account_number";
+
+    private static final String GET_TRANSACTIONS =
+        "select a.account_number, t.timestamp, t.amount "
+        + "from Transactions t join Account_Summary a on a.id = t.account_summary_id "
+        + "where a.account_number > ? "
+        + "order by a.account_number, t.id";
+
+    private DataSource dataSource;
+    private int fetchSize = Integer.MIN_VALUE;
+
+    private JdbcCursorItemReader<AccountSummary> accountSummaryReader;
+    private JdbcCursorItemReader<Transaction> transactionReader;
+
+    private Transaction currentTransaction;
+    private String lastAccountNumber = "";
+
+    public AccountSummaryTransactionReader(DataSource dataSource) {
+        this.dataSource = dataSource;
+        setName("accountSummaryTransactionReader");
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public AccountSummary read() throws Exception {
+        AccountSummary accountSummary = accountSummaryReader.read();
+
+        if (accountSummary != null) {
+            String accountNumber = accountSummary.getAccountNumber();
+            if (accountNumber.compareTo(lastAccountNumber) <= 0) {
+                throw outOfOrder("Account_Summary", lastAccountNumber, accountNumber);
+            }
+            accountSummary.setTransactions(new ArrayList<>());
+
+            // 모든 거래는 요약 레코드가 있는 계좌의 것이므로, 현재 계좌보다 앞선 계좌번호가 나온다면 정렬 순서가 다른 것이다.
+            if (peek() != null && peek().getAccountNumber().compareTo(accountNumber) < 0) {
+                throw outOfOrder("Transactions", accountNumber, peek().getAccountNumber());
+            }
+            while (peek() != null && peek().getAccountNumber().equals(accountNumber)) {
+                accountSummary.getTransactions().add(currentTransaction);
+                currentTransaction = null;
+            }
+            lastAccountNumber = accountNumber;
+        }
+        return accountSummary;
+    }
+
+    private IllegalStateException outOfOrder(String table, String previous, String current) {
+        return new IllegalStateException(table + " rows are not ordered by account_number as String.compareTo expects ('"
+            + current + "' after '" + previous + "'). Use a binary collation for account_number.");
+    }
+
+    private Transaction peek() throws Exception {
+        if (currentTransaction == null) {
+            currentTransaction = transactionReader.read();
+        }
+        return currentTransaction;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (executionContext.containsKey(getExecutionContextKey(LAST_ACCOUNT_NUMBER_KEY))) {
+            lastAccountNumber = executionContext.getString(getExecutionContextKey(LAST_ACCOUNT_NUMBER_KEY));
+        } else {
+            lastAccountNumber = "";
+        }
+        currentTransaction = null;
+
+        /**
+         * 재시작 위치는 이 리더가 직접 관리하므로, 위임 커서들의 상태 저장은 비활성화한다.
+         */
+        accountSummaryReader = new JdbcCursorItemReaderBuilder<AccountSummary>()
+            .name("accountSummaryCursor")
+            .dataSource(dataSource)
+            .sql(GET_ACCOUNT_SUMMARY)
+            .queryArguments(lastAccountNumber)
+            .fetchSize(fetchSize)
+            .rowMapper(new BeanPropertyRowMapper<>(AccountSummary.class))
+            .saveState(false)
+            .build();
+
+        transactionReader = new JdbcCursorItemReaderBuilder<Transaction>()
+            .name("transactionCursor")
+            .dataSource(dataSource)
+            .sql(GET_TRANSACTIONS)
+            .queryArguments(lastAccountNumber)
+            .fetchSize(fetchSize)
+            .rowMapper(new BeanPropertyRowMapper<>(Transaction.class))
+            .saveState(false)
+            .build();
+
+        accountSummaryReader.open(new ExecutionContext());
+        transactionReader.open(new ExecutionContext());
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putString(getExecutionContextKey(LAST_ACCOUNT_NUMBER_KEY), lastAccountNumber);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (accountSummaryReader != null) {
+            accountSummaryReader.close();
+        }
+        if (transactionReader != null) {
+            transactionReader.close();
+        }
+    }
+}
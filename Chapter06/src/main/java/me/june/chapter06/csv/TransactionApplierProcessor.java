@@ -16,8 +16,12 @@ public class TransactionApplierProcessor implements ItemProcessor<AccountSummary
 
     @Override
     public AccountSummary process(AccountSummary accountSummary) throws Exception {
-        List<Transaction> transactions = transactionDao.getTransactionsByAccountNumber(
-            accountSummary.getAccountNumber());
+        List<Transaction> transactions = accountSummary.getTransactions();
+
+        // 리더가 거래내역을 채워주지 않은 경우에만 계좌별로 조회한다.
+        if (transactions == null) {
+            transactions = transactionDao.getTransactionsByAccountNumber(accountSummary.getAccountNumber());
+        }
 
         for (Transaction transaction : transactions) {
             accountSummary.setCurrentBalance(accountSummary.getCurrentBalance() + transaction.getAmount());
@@ -0,0 +1,43 @@
+package me.june.chapter06.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import me.june.chapter06.csv.domain.AccountSummary;
+import me.june.chapter06.csv.domain.TransactionDao;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * TransactionApplierProcessor 의 청크 단위 버전
+ * -> ItemProcessor 는 아이템 하나씩 호출되므로 계좌마다 거래내역 조회 쿼리가 발생한다. (N+1)
+ * -> ItemWriter 는 청크 전체를 한번에 전달받기 때문에, 청크에 포함된 계좌의 거래 합계를 한번의 쿼리로 조회한 뒤 메모리에서 잔액에 반영한다.
+ * -> 잔액 반영이 끝난 아이템들은 위임 ItemWriter (accountSummaryWriter) 로 전달한다.
+ */
+public class TransactionApplierWriter implements ItemWriter<AccountSummary> {
+
+    private TransactionDao transactionDao;
+    private ItemWriter<AccountSummary> delegate;
+
+    public TransactionApplierWriter(TransactionDao transactionDao, ItemWriter<AccountSummary> delegate) {
+        this.transactionDao = transactionDao;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(List<? extends AccountSummary> items) throws Exception {
+        List<String> accountNumbers = new ArrayList<>(items.size());
+        for (AccountSummary accountSummary : items) {
+            accountNumbers.add(accountSummary.getAccountNumber());
+        }
+
+        Map<String, Double> sums = transactionDao.getTransactionAmountSumsByAccountNumbers(accountNumbers);
+
+        for (AccountSummary accountSummary : items) {
+            Double sum = sums.get(accountSummary.getAccountNumber());
+            if (sum != null) {
+                accountSummary.setCurrentBalance(accountSummary.getCurrentBalance() + sum);
+            }
+        }
+        delegate.write(items);
+    }
+}
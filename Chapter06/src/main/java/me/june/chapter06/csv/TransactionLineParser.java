@@ -0,0 +1,135 @@
+package me.june.chapter06.csv;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import me.june.chapter06.csv.domain.Transaction;
+import org.springframework.batch.item.ParseException;
+
+/**
+ * 거래 파일 라인 (계좌번호,yyyy-MM-dd HH:mm:ss,금액) 전용 파서
+ * -> DelimitedLineTokenizer 는 토큰마다 String 을 만들고, DefaultFieldSet.readDate 는 호출마다 SimpleDateFormat 을 생성한다.
+ * -> 이 파서는 구분자 위치만 찾은 뒤 날짜와 금액을 문자 단위로 직접 계산하므로, 계좌번호 외에는 중간 String 을 만들지 않는다.
+ * -> 날짜 계산에 사용하는 Calendar 를 재사용하기 때문에 스레드에 안전하지 않다. (리더마다 별도의 인스턴스를 사용해야 한다.)
+ */
+public class TransactionLineParser {
+
+    private static final char DELIMITER = ',';
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+
+    private static final double[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000,
+        10_000_000, 100_000_000, 1_000_000_000};
+
+    private final Calendar calendar = new GregorianCalendar();
+
+    /**
+     * 구분자가 없는 라인은 레코드 수가 기록된 푸터 레코드이다.
+     */
+    public boolean isFooter(String line) {
+        return line.indexOf(DELIMITER) < 0;
+    }
+
+    public int parseFooter(String line) {
+        try {
+            return Integer.parseInt(line.trim());
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid footer record: " + line, e);
+        }
+    }
+
+    public Transaction parse(String line) {
+        int firstDelimiter = line.indexOf(DELIMITER);
+        int secondDelimiter = line.indexOf(DELIMITER, firstDelimiter + 1);
+        if (secondDelimiter < 0) {
+            throw new ParseException("Invalid transaction record: " + line);
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setAccountNumber(line.substring(0, firstDelimiter).trim());
+        transaction.setTimestamp(parseTimestamp(line, skipWhitespace(line, firstDelimiter + 1)));
+        transaction.setAmount(parseAmount(line, skipWhitespace(line, secondDelimiter + 1), line.length()));
+        return transaction;
+    }
+
+    private Date parseTimestamp(String line, int start) {
+        if (start + TIMESTAMP_LENGTH > line.length()) {
+            throw new ParseException("Invalid timestamp: " + line);
+        }
+        int year = parseDigits(line, start, 4);
+        int month = parseDigits(line, start + 5, 2);
+        int day = parseDigits(line, start + 8, 2);
+        int hour = parseDigits(line, start + 11, 2);
+        int minute = parseDigits(line, start + 14, 2);
+        int second = parseDigits(line, start + 17, 2);
+
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        return new Date(calendar.getTimeInMillis());
+    }
+
+    /**
+     * 소수점을 제외한 숫자를 long 으로 누적한 뒤 10 의 거듭제곱으로 한번만 나눈다.
+     * -> 두 값 모두 double 로 정확하게 표현되는 범위라면 Double.parseDouble 과 같은 값이 된다.
+     */
+    private double parseAmount(String line, int start, int end) {
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+
+        boolean negative = false;
+        int index = start;
+        if (index < end && (line.charAt(index) == '-' || line.charAt(index) == '+')) {
+            negative = line.charAt(index) == '-';
+            index++;
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; index < end; index++) {
+            char c = line.charAt(index);
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                throw new ParseException("Invalid amount: " + line);
+            }
+        }
+
+        if (digits == 0 || digits > 15 || scale >= POWERS_OF_TEN.length) {
+            // 범위를 벗어나면 정확도를 위해 기존 방식으로 파싱한다.
+            try {
+                return Double.parseDouble(line.substring(start, end));
+            } catch (NumberFormatException e) {
+                throw new ParseException("Invalid amount: " + line, e);
+            }
+        }
+
+        double amount = scale > 0 ? unscaled / POWERS_OF_TEN[scale] : unscaled;
+        return negative ? -amount : amount;
+    }
+
+    private int parseDigits(String line, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new ParseException("Invalid timestamp: " + line);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private int skipWhitespace(String line, int index) {
+        while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -3,10 +3,18 @@ package me.june.chapter06.csv;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import javax.sql.DataSource;
+import me.june.chapter06.async.AsyncItemProcessor;
+import me.june.chapter06.async.AsyncItemWriter;
 import me.june.chapter06.csv.domain.AccountSummary;
 import me.june.chapter06.csv.domain.Transaction;
 import me.june.chapter06.csv.domain.TransactionDao;
+import me.june.chapter06.csv.partition.TransactionFilePartitioner;
+import me.june.chapter06.csv.partition.TransactionRecordCountAggregator;
+import me.june.chapter06.file.AsyncFlatFileItemWriter;
+import me.june.chapter06.file.MappedFlatFileItemReader;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -18,11 +26,9 @@ import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.mapping.PassThroughFieldSetMapper;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
 import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
@@ -33,7 +39,9 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @EnableBatchProcessing
 @SpringBootApplication
@@ -63,23 +71,42 @@ public class TransactionProcessingJob {
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    /**
+     * true 라면 applyTransactionsStep 대신 청크의 아이템을 스레드풀로 나누어 처리하는 asyncApplyTransactionsStep 을 사용한다.
+     */
+    @Value("${transaction.apply.async:false}")
+    private boolean applyAsync;
+
+    /**
+     * true 라면 거래내역을 함께 읽는 리더 대신, 청크마다 한번의 합계 쿼리로 잔액을 반영하는 chunkSumApplyTransactionsStep 을 사용한다.
+     */
+    @Value("${transaction.apply.chunk-sum:false}")
+    private boolean applyChunkSum;
+
     @StepScope
     @Bean
     public TransactionReader transactionReader() {
         return new TransactionReader(fileItemReader(null));
     }
 
+    /**
+     * FlatFileItemReader 대신 메모리 맵 방식의 리더를 사용한다.
+     * -> 재시작시 라인을 다시 읽지 않고 저장된 바이트 위치부터 읽는다.
+     */
     @StepScope
     @Bean
-    public FlatFileItemReader<FieldSet> fileItemReader(
+    public MappedFlatFileItemReader<FieldSet> fileItemReader(
         @Value("#{jobParameters['transactionFile']}") Resource inputFile
     ) {
-        return new FlatFileItemReaderBuilder<FieldSet>()
-            .name("fileItemReader")
-            .resource(inputFile)
-            .lineTokenizer(new DelimitedLineTokenizer())
-            .fieldSetMapper(new PassThroughFieldSetMapper())
-            .build();
+        DefaultLineMapper<FieldSet> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(new DelimitedLineTokenizer());
+        lineMapper.setFieldSetMapper(new PassThroughFieldSetMapper());
+
+        MappedFlatFileItemReader<FieldSet> reader = new MappedFlatFileItemReader<>();
+        reader.setName("fileItemReader");
+        reader.setResource(inputFile);
+        reader.setLineMapper(lineMapper);
+        return reader;
     }
 
     @Bean
@@ -107,6 +134,99 @@ public class TransactionProcessingJob {
             .build();
     }
 
+    /**
+     * 파티션 방식의 거래 파일 가져오기
+     * -> TransactionFilePartitioner 가 파일을 바이트 범위로 나누고, 각 범위를 워커 스텝이 별도의 스레드에서 읽고 쓴다.
+     * -> 워커마다 스텝 스코프의 리더가 생성되므로 리더의 상태가 스레드간에 공유되지 않는다.
+     * -> 푸터 레코드 검사는 TransactionRecordCountAggregator 가 모든 워커의 레코드 수를 합산해서 수행한다.
+     */
+    @StepScope
+    @Bean
+    public TransactionFilePartitioner transactionFilePartitioner(
+        @Value("#{jobParameters['transactionFile']}") Resource inputFile
+    ) {
+        return new TransactionFilePartitioner(inputFile);
+    }
+
+    /**
+     * 워커 스텝은 FieldSet 을 거치지 않고 TransactionLineParser 로 라인을 직접 파싱한다.
+     */
+    @StepScope
+    @Bean
+    public TransactionReader partitionedTransactionReader() {
+        TransactionReader reader = new TransactionReader(partitionedFileItemReader(null, null, null), new TransactionLineParser());
+        reader.setDeferFooterCheck(true);
+        return reader;
+    }
+
+    /**
+     * 파티션의 바이트 범위만 읽고, 재시작시 저장된 바이트 위치부터 바로 읽는다.
+     */
+    @StepScope
+    @Bean
+    public MappedFlatFileItemReader<String> partitionedFileItemReader(
+        @Value("#{jobParameters['transactionFile']}") Resource inputFile,
+        @Value("#{stepExecutionContext['startByte']}") Long startByte,
+        @Value("#{stepExecutionContext['endByte']}") Long endByte
+    ) {
+        MappedFlatFileItemReader<String> reader = new MappedFlatFileItemReader<>();
+        reader.setName("partitionedFileItemReader");
+        reader.setResource(inputFile);
+        reader.setLineMapper(new PassThroughLineMapper());
+        reader.setStartByte(startByte);
+        reader.setEndByte(endByte);
+        return reader;
+    }
+
+    @Bean
+    public TaskExecutor importTransactionTaskExecutor(
+        @Value("${transaction.import.grid-size:4}") Integer gridSize
+    ) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(gridSize);
+        taskExecutor.setMaxPoolSize(gridSize);
+        taskExecutor.setThreadNamePrefix("import-transaction-");
+        return taskExecutor;
+    }
+
+    /**
+     * 계좌번호 -> id 를 캐시해서 insert 마다 발생하는 서브쿼리를 제거한 writer
+     * -> 워커 스레드마다 별도의 캐시를 사용하도록 스텝 스코프로 등록한다.
+     */
+    @StepScope
+    @Bean
+    public AccountIdCachingTransactionWriter accountIdCachingTransactionWriter(
+        @Value("${transaction.import.account-id-cache-size:10000}") Integer cacheSize
+    ) {
+        return new AccountIdCachingTransactionWriter(transactionDao(null), cacheSize);
+    }
+
+    @Bean
+    public Step importTransactionFileWorkerStep() {
+        return this.stepBuilderFactory.get("importTransactionFileWorkerStep")
+            .<Transaction, Transaction>chunk(100)
+            .reader(partitionedTransactionReader())
+            .writer(accountIdCachingTransactionWriter(null))
+            .listener(partitionedTransactionReader())
+            .listener(accountIdCachingTransactionWriter(null))
+            .build();
+    }
+
+    @Bean
+    public Step partitionedImportTransactionFileStep(
+        @Value("${transaction.import.grid-size:4}") Integer gridSize
+    ) {
+        return this.stepBuilderFactory.get("partitionedImportTransactionFileStep")
+            .allowStartIfComplete(true)
+            .startLimit(2)
+            .partitioner(importTransactionFileWorkerStep().getName(), transactionFilePartitioner(null))
+            .step(importTransactionFileWorkerStep())
+            .gridSize(gridSize)
+            .taskExecutor(importTransactionTaskExecutor(gridSize))
+            .aggregator(new TransactionRecordCountAggregator())
+            .build();
+    }
+
     @StepScope
     @Bean
     public JdbcCursorItemReader<AccountSummary> accountSummaryReader(DataSource dataSource) {
@@ -118,6 +238,15 @@ public class TransactionProcessingJob {
             .build();
     }
 
+    /**
+     * 계좌 요약과 거래내역을 한번에 병합해서 읽는 리더
+     */
+    @StepScope
+    @Bean
+    public AccountSummaryTransactionReader accountSummaryTransactionReader(DataSource dataSource) {
+        return new AccountSummaryTransactionReader(dataSource);
+    }
+
     @Bean
     public TransactionDao transactionDao(DataSource dataSource) {
         return new TransactionDao(dataSource);
@@ -137,19 +266,92 @@ public class TransactionProcessingJob {
             .build();
     }
 
+    /**
+     * 거래내역이 채워진 AccountSummary 를 읽으므로 아이템마다 추가 쿼리가 발생하지 않는다.
+     * -> 프로세서는 메모리에서 합계만 계산하므로 스레드풀로 나누어 처리하지 않는다. (넘기는 비용이 더 크다.)
+     */
     @Bean
     public Step applyTransactionStep() {
         return this.stepBuilderFactory.get("applyTransactionsStep")
             .<AccountSummary, AccountSummary>chunk(100)
-            .reader(accountSummaryReader(null))
+            .reader(accountSummaryTransactionReader(null))
             .processor(transactionApplierProcessor())
             .writer(accountSummaryWriter(null))
             .build();
     }
 
+    /**
+     * 청크 단위로 거래 합계를 조회해 잔액에 반영한 뒤 accountSummaryWriter 에 위임한다.
+     */
+    @Bean
+    public TransactionApplierWriter transactionApplierWriter() {
+        return new TransactionApplierWriter(transactionDao(null), accountSummaryWriter(null));
+    }
+
+    /**
+     * transaction.apply.chunk-sum=true 일 때 사용하는 applyTransactionsStep
+     * -> 거래내역을 채우지 않는 accountSummaryReader 로 계좌만 읽고, TransactionApplierWriter 가 청크당 한번의 group by 쿼리로 합계를 반영한다.
+     * -> 병합 조인 리더 (기본값) 는 거래내역 전체를 애플리케이션으로 가져오지만, 이 방식은 DB 에서 합계만 가져온다.
+     *    계좌당 거래 건수가 많아 전송량이 문제가 된다면 이 방식을 선택한다.
+     */
+    @Bean
+    public Step chunkSumApplyTransactionStep() {
+        return this.stepBuilderFactory.get("chunkSumApplyTransactionsStep")
+            .<AccountSummary, AccountSummary>chunk(100)
+            .reader(accountSummaryReader(null))
+            .writer(transactionApplierWriter())
+            .build();
+    }
+
+    /**
+     * 청크의 아이템을 동시에 처리하기 위한 스레드풀
+     * -> 큐가 가득 차면 호출한 청크 스레드에서 직접 처리해 (CallerRunsPolicy) 작업이 무한히 쌓이지 않도록 한다.
+     */
+    @Bean
+    public TaskExecutor applyTransactionTaskExecutor(
+        @Value("${transaction.apply.pool-size:4}") Integer poolSize
+    ) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(poolSize);
+        taskExecutor.setMaxPoolSize(poolSize);
+        taskExecutor.setQueueCapacity(100);
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskExecutor.setThreadNamePrefix("apply-transaction-");
+        return taskExecutor;
+    }
+
+    @Bean
+    public AsyncItemProcessor<AccountSummary, AccountSummary> asyncTransactionApplierProcessor() {
+        return new AsyncItemProcessor<>(transactionApplierProcessor(), applyTransactionTaskExecutor(null));
+    }
+
+    @Bean
+    public AsyncItemWriter<AccountSummary> asyncAccountSummaryWriter() {
+        return new AsyncItemWriter<>(accountSummaryWriter(null));
+    }
+
+    /**
+     * transaction.apply.async=true 일 때 사용하는 비동기 버전의 applyTransactionsStep
+     * -> 프로세서가 무거워지는 경우 (아이템마다 외부 호출 등) 를 위한 선택지로, 기본값은 동기 버전이다.
+     * -> AsyncItemWriter 가 읽은 순서대로 결과를 꺼내므로 JdbcBatchItemWriter 에 전달되는 순서는 동기 버전과 같다.
+     * -> 처리 중 발생한 예외는 쓰기 시점에 원래 예외로 다시 던져지므로 스킵/재시도 정책이 그대로 동작한다.
+     */
+    @Bean
+    public Step asyncApplyTransactionStep() {
+        return this.stepBuilderFactory.get("asyncApplyTransactionsStep")
+            .<AccountSummary, Future<AccountSummary>>chunk(100)
+            .reader(accountSummaryTransactionReader(null))
+            .processor(asyncTransactionApplierProcessor())
+            .writer(asyncAccountSummaryWriter())
+            .build();
+    }
+
+    /**
+     * 파일 쓰기를 별도의 I/O 스레드에서 수행하는 AsyncFlatFileItemWriter 를 사용한다.
+     */
     @StepScope
     @Bean
-    public FlatFileItemWriter<AccountSummary> accountSummaryFileWriter(
+    public AsyncFlatFileItemWriter<AccountSummary> accountSummaryFileWriter(
         @Value("#{jobParameters['summaryFile']}") Resource summaryFile
     ) {
         DelimitedLineAggregator<AccountSummary> lineAggregator = new DelimitedLineAggregator<>();
@@ -158,11 +360,11 @@ public class TransactionProcessingJob {
         fieldExtractor.afterPropertiesSet();
         lineAggregator.setFieldExtractor(fieldExtractor);
 
-        return new FlatFileItemWriterBuilder<AccountSummary>()
-            .name("accountSummaryFileWriter")
-            .resource(summaryFile)
-            .lineAggregator(lineAggregator)
-            .build();
+        AsyncFlatFileItemWriter<AccountSummary> writer = new AsyncFlatFileItemWriter<>();
+        writer.setName("accountSummaryFileWriter");
+        writer.setResource(summaryFile);
+        writer.setLineAggregator(lineAggregator);
+        return writer;
     }
 
     @Bean
@@ -189,16 +391,29 @@ public class TransactionProcessingJob {
      }
      */
 
+    /**
+     * 거래 파일 가져오기는 단일 스레드로 동작하는 importTransactionFileStep 대신 파티션 방식의 스텝을 사용한다.
+     */
     @Bean
     public Job transactionJob() {
         return this.jobBuilderFactory.get("transactionJob")
             .preventRestart() // 실패또는 어떤 이유든 중지되었다면 재시작 할 수 없다.
-            .start(importTransactionFileStep())
-            .next(applyTransactionStep())
+            .start(partitionedImportTransactionFileStep(null))
+            .next(selectedApplyTransactionStep())
             .next(generateAccountSummaryStep())
             .build();
     }
 
+    /**
+     * transaction.apply.* 설정에 따라 잔액 반영 스텝을 고른다. (기본값은 병합 조인 리더를 사용하는 applyTransactionsStep)
+     */
+    private Step selectedApplyTransactionStep() {
+        if (applyChunkSum) {
+            return chunkSumApplyTransactionStep();
+        }
+        return applyAsync ? asyncApplyTransactionStep() : applyTransactionStep();
+    }
+
     public static void main(String[] args) {
         List<String> realArgs = new ArrayList<>(Arrays.asList(args));
 
@@ -6,6 +6,7 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.AfterStep;
 import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.NonTransientResourceException;
@@ -22,29 +23,68 @@ import org.springframework.batch.item.file.transform.FieldSet;
  */
 public class TransactionReader implements ItemStreamReader<Transaction> {
 
+    public static final String RECORD_COUNT_KEY = "transactionReader.record.count";
+    public static final String EXPECTED_RECORD_COUNT_KEY = "transactionReader.expected.record.count";
+
     private ItemStreamReader<FieldSet> fieldSetReader;
+
+    /**
+     * FieldSet 을 거치지 않고 라인 문자열을 직접 파싱하는 경우 사용한다.
+     */
+    private ItemStreamReader<String> lineReader;
+    private TransactionLineParser lineParser;
+
+    private ItemStream delegate;
+
     private int recordCount = 0;
     private int expectedRecordCount = 0;
+    private boolean footerRead = false;
+
+    /**
+     * 파티션된 스텝의 워커로 동작할 경우, 워커는 파일의 일부 레코드만 읽기 때문에 푸터 레코드 검사를 직접 하지 않는다.
+     * -> 읽은 레코드 수와 푸터 레코드 값을 ExecutionContext 에 기록하고, 검사는 TransactionRecordCountAggregator 가 수행한다.
+     */
+    private boolean deferFooterCheck = false;
 
     private StepExecution stepExecution;
 
     public TransactionReader(ItemStreamReader<FieldSet> fieldSetReader) {
         this.fieldSetReader = fieldSetReader;
+        this.delegate = fieldSetReader;
+    }
+
+    /**
+     * DelimitedLineTokenizer -> DefaultFieldSet -> readDate 로 이어지는 파싱 과정 대신
+     * TransactionLineParser 로 라인을 직접 파싱한다. (PassThroughLineMapper 를 사용하는 리더와 함께 사용)
+     */
+    public TransactionReader(ItemStreamReader<String> lineReader, TransactionLineParser lineParser) {
+        this.lineReader = lineReader;
+        this.lineParser = lineParser;
+        this.delegate = lineReader;
+    }
+
+    public void setDeferFooterCheck(boolean deferFooterCheck) {
+        this.deferFooterCheck = deferFooterCheck;
     }
 
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        fieldSetReader.open(executionContext);
+        delegate.open(executionContext);
+        recordCount = executionContext.getInt(RECORD_COUNT_KEY, 0);
     }
 
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
-        fieldSetReader.update(executionContext);
+        delegate.update(executionContext);
+        executionContext.putInt(RECORD_COUNT_KEY, recordCount);
+        if (footerRead) {
+            executionContext.putInt(EXPECTED_RECORD_COUNT_KEY, expectedRecordCount);
+        }
     }
 
     @Override
     public void close() throws ItemStreamException {
-        fieldSetReader.close();
+        delegate.close();
     }
 
     @Override
@@ -60,6 +100,9 @@ public class TransactionReader implements ItemStreamReader<Transaction> {
 //            throw new ParseException("This isn't what i hoped to happen");
 //            throw new IllegalArgumentException();
         }
+        if (lineReader != null) {
+            return process(lineReader.read());
+        }
         return process(fieldSetReader.read());
     }
 
@@ -70,25 +113,48 @@ public class TransactionReader implements ItemStreamReader<Transaction> {
             if (fieldSet.getFieldCount() > 1) { // 레코드에 값이 2개이상 이라면 데이터 레코드, 아닐경우 푸터 레코드이다.
                 result = new Transaction();
                 result.setAccountNumber(fieldSet.readString(0));
-                result.setTimestamp(fieldSet.readDate(1, "yyyy-MM-DD HH:mm:ss"));
+                result.setTimestamp(fieldSet.readDate(1, "yyyy-MM-dd HH:mm:ss"));
                 result.setAmount(fieldSet.readDouble(2));
                 recordCount++;
             } else {
-                expectedRecordCount = fieldSet.readInt(0);
-
-                /**
-                 * AfterStep 에 있던 Record 검사로직이 process 로 이동
-                 */
-                // 푸터 레코드와 실제 레코드 값이 다를경우 스탭이 완료된 후 스프링배치가 종료되도록 지시
-                // JOB 이 STOPPED 상태를 반환하는 대신 스프링 배치가 JobInterruptedException 을 던진다.
-                if (expectedRecordCount != this.recordCount) {
-                    this.stepExecution.setTerminateOnly();
-                }
+                processFooter(fieldSet.readInt(0));
             }
         }
         return result;
     }
 
+    private Transaction process(String line) {
+        Transaction result = null;
+
+        if (line != null) {
+            if (!lineParser.isFooter(line)) {
+                result = lineParser.parse(line);
+                recordCount++;
+            } else {
+                processFooter(lineParser.parseFooter(line));
+            }
+        }
+        return result;
+    }
+
+    private void processFooter(int expectedRecordCount) {
+        this.expectedRecordCount = expectedRecordCount;
+        footerRead = true;
+
+        if (deferFooterCheck) {
+            return;
+        }
+
+        /**
+         * AfterStep 에 있던 Record 검사로직이 process 로 이동
+         */
+        // 푸터 레코드와 실제 레코드 값이 다를경우 스탭이 완료된 후 스프링배치가 종료되도록 지시
+        // JOB 이 STOPPED 상태를 반환하는 대신 스프링 배치가 JobInterruptedException 을 던진다.
+        if (expectedRecordCount != this.recordCount) {
+            this.stepExecution.setTerminateOnly();
+        }
+    }
+
     /**
      * 스프링배치에서 CSV 리더를 제공하지만, 커스텀 리더를 만든 이유 ?
      * -> 스탭의 ExitStatus 가 리더의 상태에 묶여 있기 때문이다..
@@ -1,5 +1,6 @@
 package me.june.chapter06.csv.domain;
 
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -8,4 +9,10 @@ public class AccountSummary {
     private int id;
     private String accountNumber;
     private Double currentBalance;
+
+    /**
+     * AccountSummaryTransactionReader 가 미리 채워주는 계좌의 거래내역
+     * -> null 이라면 거래내역이 조회되지 않은 상태이다.
+     */
+    private List<Transaction> transactions;
 }
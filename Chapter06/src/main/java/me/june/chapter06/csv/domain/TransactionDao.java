@@ -1,8 +1,12 @@
 package me.june.chapter06.csv.domain;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.sql.DataSource;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 public class TransactionDao extends JdbcTemplate {
 
@@ -11,8 +15,20 @@ public class TransactionDao extends JdbcTemplate {
         "a.id = t.account_summary_id" +
         "where a.account_number = ?";
 
+    private static final String SUM_BY_ACCOUNT_NUMBERS = "select a.account_number, sum(t.amount) as amount "
+        + "from Transactions t join Account_Summary a on a.id = t.account_summary_id "
+        + "where a.account_number in (:accountNumbers) "
+        + "group by a.account_number";
+
+    private static final String GET_ACCOUNT_IDS_BY_ACCOUNT_NUMBERS = "select a.id, a.account_number "
+        + "from Account_Summary a "
+        + "where a.account_number in (:accountNumbers)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
     public TransactionDao(DataSource dataSource) {
         super(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this);
     }
 
     public List<Transaction> getTransactionsByAccountNumber(String accountNumber) {
@@ -28,4 +44,41 @@ public class TransactionDao extends JdbcTemplate {
 //            BeanPropertyRowMapper.newInstance(Transaction.class), // snake_case to camel_case 자동 매핑해줌
 //            accountNumber);
     }
+
+    /**
+     * 청크에 포함된 계좌번호 전체의 거래 합계를 한번의 쿼리로 조회한다.
+     * -> 계좌마다 쿼리를 수행하던 N+1 문제를 청크당 1회 쿼리로 줄인다.
+     * -> 거래내역이 없는 계좌는 결과 Map 에 포함되지 않는다.
+     */
+    public Map<String, Double> getTransactionAmountSumsByAccountNumbers(Collection<String> accountNumbers) {
+        Map<String, Double> sums = new HashMap<>();
+        if (accountNumbers.isEmpty()) {
+            return sums;
+        }
+        namedParameterJdbcTemplate.query(
+            SUM_BY_ACCOUNT_NUMBERS,
+            Map.of("accountNumbers", accountNumbers),
+            rs -> {
+                sums.put(rs.getString("account_number"), rs.getDouble("amount"));
+            });
+        return sums;
+    }
+
+    /**
+     * 계좌번호에 해당하는 Account_Summary 의 id 를 한번의 쿼리로 조회한다.
+     * -> 존재하지 않는 계좌번호는 결과 Map 에 포함되지 않는다.
+     */
+    public Map<String, Integer> getAccountIdsByAccountNumbers(Collection<String> accountNumbers) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (accountNumbers.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(
+            GET_ACCOUNT_IDS_BY_ACCOUNT_NUMBERS,
+            Map.of("accountNumbers", accountNumbers),
+            rs -> {
+                ids.put(rs.getString("account_number"), rs.getInt("id"));
+            });
+        return ids;
+    }
 }
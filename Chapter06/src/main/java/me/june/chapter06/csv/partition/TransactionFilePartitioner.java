@@ -0,0 +1,90 @@
+package me.june.chapter06.csv.partition;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+/**
+ * 거래 파일을 바이트 범위 단위로 분할하는 Partitioner
+ * -> 파일 크기를 gridSize 로 나눈 위치에서 다음 개행 문자까지 이동해 각 파티션이 항상 라인의 시작에서 시작하도록 맞춘다.
+ * -> 각 파티션의 ExecutionContext 에 startByte (포함), endByte (미포함) 를 저장하고 워커 스텝에서 이 범위만 읽는다. (MappedFlatFileItemReader)
+ */
+public class TransactionFilePartitioner implements Partitioner {
+
+    public static final String START_BYTE_KEY = "startByte";
+    public static final String END_BYTE_KEY = "endByte";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    private Resource resource;
+
+    public TransactionFilePartitioner(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+
+        try {
+            long length = resource.contentLength();
+            long start = 0;
+
+            for (int i = 0; i < gridSize && start < length; i++) {
+                long end = (i == gridSize - 1) ? length : alignToNextLine(length * (i + 1) / gridSize, length);
+                if (end <= start) {
+                    continue;
+                }
+
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(START_BYTE_KEY, start);
+                context.putLong(END_BYTE_KEY, end);
+                partitions.put(PARTITION_PREFIX + i, context);
+
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to partition " + resource, e);
+        }
+        return partitions;
+    }
+
+    /**
+     * position 이후 처음 나오는 개행 문자 다음 위치를 반환한다.
+     */
+    private long alignToNextLine(long position, long length) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            skipFully(inputStream, position);
+
+            long offset = position;
+            int b;
+            while ((b = inputStream.read()) != -1) {
+                offset++;
+                if (b == '\n') {
+                    return offset;
+                }
+            }
+            return length;
+        }
+    }
+
+    private void skipFully(InputStream inputStream, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    throw new EOFException("Unexpected end of stream while skipping " + count + " bytes");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
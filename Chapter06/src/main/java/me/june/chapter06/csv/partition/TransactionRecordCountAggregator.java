@@ -0,0 +1,46 @@
+package me.june.chapter06.csv.partition;
+
+import java.util.Collection;
+import me.june.chapter06.csv.TransactionReader;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * 파티션된 importTransactionFileStep 의 푸터 레코드 검사
+ * -> 각 워커는 자신이 읽은 레코드 수만 알고 있으므로, TransactionReader 가 레코드 수를 비교하는 대신
+ *    워커의 ExecutionContext 에 저장된 레코드 수를 모두 더해 푸터 레코드의 예상 레코드 수와 비교한다.
+ * -> 값이 다르다면 기존과 동일하게 매니저 스텝에 setTerminateOnly() 를 지시해 잡이 중지되도록 한다.
+ */
+public class TransactionRecordCountAggregator implements StepExecutionAggregator {
+
+    private StepExecutionAggregator delegate = new DefaultStepExecutionAggregator();
+
+    @Override
+    public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+        delegate.aggregate(result, executions);
+
+        int recordCount = 0;
+        Integer expectedRecordCount = null;
+
+        for (StepExecution execution : executions) {
+            ExecutionContext context = execution.getExecutionContext();
+            recordCount += context.getInt(TransactionReader.RECORD_COUNT_KEY, 0);
+
+            if (context.containsKey(TransactionReader.EXPECTED_RECORD_COUNT_KEY)) {
+                expectedRecordCount = context.getInt(TransactionReader.EXPECTED_RECORD_COUNT_KEY);
+            }
+        }
+
+        result.getExecutionContext().putInt(TransactionReader.RECORD_COUNT_KEY, recordCount);
+
+        if (expectedRecordCount != null) {
+            result.getExecutionContext().putInt(TransactionReader.EXPECTED_RECORD_COUNT_KEY, expectedRecordCount);
+
+            if (expectedRecordCount != recordCount) {
+                result.setTerminateOnly();
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package me.june.chapter06.file;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.batch.item.file.FlatFileFooterCallback;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 파일 쓰기를 별도의 I/O 스레드에서 수행하는 FlatFileItemWriter 대체 구현체
+ * -> 라인 포맷팅과 인코딩은 청크 스레드에서 수행하고, 인코딩된 바이트를 두개의 direct ByteBuffer 를 번갈아 사용해 I/O 스레드로 넘긴다.
+ * -> write() 가 끝나는 즉시 I/O 스레드가 쓰기를 시작하므로, 디스크 쓰기가 커밋 전까지 남은 작업
+ *    (다른 writer, afterWrite 리스너, JobRepository 의 ExecutionContext 저장 등) 과 동시에 진행된다.
+ *
+ * FlatFileItemWriter 와 같은 커밋 보장을 한다.
+ * -> 트랜잭션이 활성화 되어 있다면 커밋 직전 (beforeCommit) 에 현재 청크의 쓰기가 끝날때 까지 기다린다.
+ *    쓰기가 실패하면 beforeCommit 에서 예외가 발생하므로 청크는 롤백된다.
+ * -> 트랜잭션이 없다면 update() 에서 쓰기가 끝날때 까지 기다린 뒤 위치를 저장한다.
+ * -> 따라서 커밋된 ExecutionContext 의 위치까지는 항상 파일에 쓰여져 있고, 재시작시 파일이 저장된 위치보다 짧아지지 않는다.
+ * -> transactional (기본값 true) 이라면 롤백된 청크의 바이트는 마지막 커밋 위치로 파일을 잘라서 제거한다.
+ * -> forceSync 가 true 라면 쓰기마다 FileChannel.force 까지 수행한다.
+ *
+ * I/O 스레드로 넘겨진 바이트 수와 쓰기를 기다린 시간을 Micrometer 로 기록한다.
+ */
+public class AsyncFlatFileItemWriter<T> extends ItemStreamSupport implements ItemStreamWriter<T>, InitializingBean {
+
+    private static final String POSITION_KEY = "position";
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private Resource resource;
+    private LineAggregator<T> lineAggregator;
+    private String lineSeparator = System.lineSeparator();
+    private Charset charset = StandardCharsets.UTF_8;
+    private boolean transactional = true;
+    private boolean forceSync = false;
+    private FlatFileHeaderCallback headerCallback;
+    private FlatFileFooterCallback footerCallback;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private String name = "asyncFlatFileItemWriter";
+
+    private FileChannel channel;
+    private ExecutorService ioExecutor;
+    private ByteBuffer front;
+    private ByteBuffer back;
+    private Future<?> pendingFlush;
+    private long position; // I/O 스레드로 넘긴 바이트의 끝 위치
+    private long committedPosition; // 마지막으로 커밋된 청크의 끝 위치
+
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private Timer blockedTimer;
+    private Gauge pendingBytesGauge;
+
+    public AsyncFlatFileItemWriter() {
+        setName(name);
+    }
+
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        this.name = name;
+    }
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public void setLineAggregator(LineAggregator<T> lineAggregator) {
+        this.lineAggregator = lineAggregator;
+    }
+
+    public void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public void setEncoding(String encoding) {
+        this.charset = Charset.forName(encoding);
+    }
+
+    public void setTransactional(boolean transactional) {
+        this.transactional = transactional;
+    }
+
+    public void setForceSync(boolean forceSync) {
+        this.forceSync = forceSync;
+    }
+
+    public void setHeaderCallback(FlatFileHeaderCallback headerCallback) {
+        this.headerCallback = headerCallback;
+    }
+
+    public void setFooterCallback(FlatFileFooterCallback footerCallback) {
+        this.footerCallback = footerCallback;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(resource, "Output resource must be set");
+        Assert.notNull(lineAggregator, "LineAggregator is required");
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than 0");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+            if (executionContext.containsKey(getExecutionContextKey(POSITION_KEY))) {
+                position = executionContext.getLong(getExecutionContextKey(POSITION_KEY));
+                if (channel.size() < position) {
+                    throw new ItemStreamException("Current file size is smaller than size at last commit");
+                }
+                channel.truncate(position);
+                channel.position(position);
+            } else {
+                channel.truncate(0);
+                position = 0;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to initialize writer for " + resource, e);
+        }
+
+        front = ByteBuffer.allocateDirect(bufferSize);
+        back = ByteBuffer.allocateDirect(bufferSize);
+        ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        blockedTimer = Timer.builder("batch.file.writer.async.blocked")
+            .description("Time the chunk thread waited for the previous buffer to be written")
+            .tag("name", name)
+            .register(meterRegistry);
+        pendingBytesGauge = Gauge.builder("batch.file.writer.async.pending", pendingBytes, AtomicLong::get)
+            .description("Bytes handed to the I/O thread and not yet written")
+            .baseUnit("bytes")
+            .tag("name", name)
+            .register(meterRegistry);
+
+        if (position == 0 && headerCallback != null) {
+            append(writeCallback(headerCallback::writeHeader) + lineSeparator);
+            handOff();
+            awaitPendingFlush();
+        }
+        committedPosition = position;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (T item : items) {
+            lines.append(lineAggregator.aggregate(item)).append(lineSeparator);
+        }
+        append(lines);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            registerSynchronization();
+        }
+        handOff();
+    }
+
+    /**
+     * 저장하는 위치는 I/O 스레드로 넘긴 바이트까지 포함한다.
+     * -> 트랜잭션이 있다면 이 위치가 커밋되기 전에 beforeCommit 에서 쓰기가 끝나길 기다린다.
+     * -> 트랜잭션이 없다면 위치를 저장하기 전에 여기서 기다린다.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            awaitPendingFlush();
+            committedPosition = position;
+        }
+        executionContext.putLong(getExecutionContextKey(POSITION_KEY), position);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (footerCallback != null) {
+                append(writeCallback(footerCallback::writeFooter));
+            }
+            handOff();
+            awaitPendingFlush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close writer for " + resource, e);
+        } finally {
+            ioExecutor.shutdown();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close channel for " + resource, e);
+            } finally {
+                channel = null;
+                meterRegistry.remove(blockedTimer);
+                meterRegistry.remove(pendingBytesGauge);
+            }
+        }
+    }
+
+    private void registerSynchronization() {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                awaitPendingFlush();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AsyncFlatFileItemWriter.this);
+                if (status == STATUS_COMMITTED || !transactional) {
+                    committedPosition = position;
+                } else {
+                    discardUncommitted();
+                }
+            }
+        });
+    }
+
+    /**
+     * 롤백된 청크의 바이트를 버리고 파일을 마지막 커밋 위치로 자른다.
+     */
+    private void discardUncommitted() {
+        try {
+            awaitPendingFlush();
+        } catch (WriteFailedException e) {
+            // 롤백되는 청크의 쓰기 실패는 이미 청크의 예외로 전달되었다.
+        }
+        front.clear();
+        position = committedPosition;
+        try {
+            channel.truncate(committedPosition);
+            channel.position(committedPosition);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to discard rolled back chunk from " + resource, e);
+        }
+    }
+
+    private void append(CharSequence lines) {
+        ByteBuffer encoded = charset.encode(CharBuffer.wrap(lines));
+        if (front.remaining() < encoded.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(front.capacity() * 2, front.position() + encoded.remaining()));
+            front.flip();
+            grown.put(front);
+            front = grown;
+        }
+        front.put(encoded);
+    }
+
+    /**
+     * 이전 버퍼의 쓰기가 끝나길 기다린 뒤 두 버퍼를 교체하고, 채워진 버퍼를 I/O 스레드에 넘긴다.
+     */
+    private void handOff() {
+        if (front.position() == 0) {
+            return;
+        }
+        awaitPendingFlush();
+
+        ByteBuffer filled = front;
+        front = back;
+        back = filled;
+
+        filled.flip();
+        position += filled.remaining();
+        pendingBytes.set(filled.remaining());
+
+        pendingFlush = ioExecutor.submit(() -> {
+            try {
+                while (filled.hasRemaining()) {
+                    channel.write(filled);
+                }
+                if (forceSync) {
+                    channel.force(false);
+                }
+            } finally {
+                filled.clear();
+                pendingBytes.set(0);
+            }
+            return null;
+        });
+    }
+
+    private void awaitPendingFlush() {
+        if (pendingFlush == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            pendingFlush.get();
+        } catch (ExecutionException e) {
+            throw new WriteFailedException("Could not write data to " + resource, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteFailedException("Interrupted while writing data to " + resource, e);
+        } finally {
+            pendingFlush = null;
+            blockedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String writeCallback(WriterCallback callback) throws ItemStreamException {
+        StringWriter writer = new StringWriter();
+        try {
+            callback.write(writer);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to write header/footer for " + resource, e);
+        }
+        return writer.toString();
+    }
+
+    private interface WriterCallback {
+
+        void write(StringWriter writer) throws IOException;
+    }
+}
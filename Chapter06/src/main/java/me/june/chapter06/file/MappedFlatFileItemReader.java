@@ -0,0 +1,278 @@
+package me.june.chapter06.file;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineCallbackHandler;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * FlatFileItemReader 대신 사용할 수 있는 메모리 맵 방식의 ItemReader
+ * -> BufferedReader 를 거치지 않고 FileChannel.map 으로 매핑한 버퍼에서 직접 개행 문자를 찾아 라인을 만든다.
+ * -> 2GB 를 넘는 파일도 읽을 수 있도록 파일 전체가 아닌 windowSize 단위로 매핑하고, 읽는 위치가 범위를 벗어나면 다시 매핑한다.
+ * -> LineMapper, linesToSkip, skippedLinesCallback, comments, strict 는 FlatFileItemReader 와 동일하게 동작한다.
+ *
+ * FlatFileItemReader 는 재시작시 저장된 read.count 만큼 라인을 다시 읽어서 버리지만,
+ * 이 리더는 다음에 읽을 라인의 바이트 위치를 ExecutionContext 에 저장하고 재시작시 해당 위치부터 바로 읽는다.
+ *
+ * 개행 문자를 바이트 단위로 찾기 때문에 UTF-8, EUC-KR 처럼 '\n' 이 1 바이트로 인코딩되는 문자셋만 사용할 수 있다.
+ */
+@Slf4j
+public class MappedFlatFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+    private static final String BYTE_OFFSET_KEY = "byte.offset";
+    private static final String LINE_COUNT_KEY = "line.count";
+    private static final String ENCODING_KEY = "encoding";
+
+    private static final long DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private Resource resource;
+    private LineMapper<T> lineMapper;
+    private int linesToSkip = 0;
+    private LineCallbackHandler skippedLinesCallback;
+    private String[] comments = new String[]{"#"};
+    private Charset charset = StandardCharsets.UTF_8;
+    private boolean strict = true;
+    private long windowSize = DEFAULT_WINDOW_SIZE;
+
+    /**
+     * 파일의 [startByte, endByte) 범위만 읽는다. (파티션된 스텝에서 사용)
+     * -> startByte 는 라인의 시작 위치여야 한다.
+     */
+    private long startByte = 0;
+    private long endByte = Long.MAX_VALUE;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long limit; // 읽을 수 있는 마지막 위치 (파일 크기와 endByte 중 작은 값)
+
+    private long position;
+    private int lineCount;
+    private byte[] lineBuffer = new byte[256];
+    private boolean noInput;
+
+    private long restartOffset = -1;
+    private int restartLineCount;
+
+    public MappedFlatFileItemReader() {
+        setName("mappedFlatFileItemReader");
+    }
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public void setLineMapper(LineMapper<T> lineMapper) {
+        this.lineMapper = lineMapper;
+    }
+
+    public void setLinesToSkip(int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    public void setSkippedLinesCallback(LineCallbackHandler skippedLinesCallback) {
+        this.skippedLinesCallback = skippedLinesCallback;
+    }
+
+    public void setComments(String[] comments) {
+        this.comments = comments;
+    }
+
+    public void setEncoding(String encoding) {
+        this.charset = Charset.forName(encoding);
+    }
+
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    public void setWindowSize(long windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public void setStartByte(long startByte) {
+        this.startByte = startByte;
+    }
+
+    public void setEndByte(long endByte) {
+        this.endByte = endByte;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(lineMapper, "LineMapper is required");
+        Assert.isTrue(windowSize > 0 && windowSize <= Integer.MAX_VALUE, "windowSize must be between 1 and Integer.MAX_VALUE");
+        Assert.isTrue(Arrays.equals("\n".getBytes(charset), new byte[]{'\n'}),
+            "Encoding must encode a line feed as a single byte: " + charset);
+        Assert.isTrue(startByte >= 0 && startByte <= endByte, "startByte must be between 0 and endByte");
+    }
+
+    /**
+     * 저장된 바이트 위치가 있다면 super.open() 에서 호출하는 doOpen(), jumpToItem() 이 이를 사용할 수 있도록 먼저 꺼내둔다.
+     * -> 바이트 위치는 저장할 때의 인코딩 기준이므로, 인코딩이 바뀌었다면 재시작할 수 없다.
+     * -> 저장되는 위치는 항상 라인의 시작이기 때문에 디코더에 남아있는 상태는 없다. (인코딩만 저장하면 된다.)
+     */
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        restartOffset = -1;
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(BYTE_OFFSET_KEY))) {
+            String encoding = executionContext.getString(getExecutionContextKey(ENCODING_KEY), charset.name());
+            if (!charset.name().equals(encoding)) {
+                throw new ItemStreamException("Cannot restart from byte offset saved with encoding " + encoding
+                    + " using encoding " + charset.name());
+            }
+            restartOffset = executionContext.getLong(getExecutionContextKey(BYTE_OFFSET_KEY));
+            restartLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT_KEY), 0);
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(BYTE_OFFSET_KEY), position);
+            executionContext.putInt(getExecutionContextKey(LINE_COUNT_KEY), lineCount);
+            executionContext.putString(getExecutionContextKey(ENCODING_KEY), charset.name());
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        Assert.notNull(resource, "Input resource must be set");
+        noInput = true;
+
+        if (!resource.exists()) {
+            if (strict) {
+                throw new IllegalStateException("Input resource must exist (reader is in 'strict' mode): " + resource);
+            }
+            log.warn("Input resource does not exist {}", resource.getDescription());
+            return;
+        }
+
+        channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+        limit = Math.min(channel.size(), endByte);
+        window = null;
+        noInput = false;
+
+        if (restartOffset >= 0) {
+            if (restartOffset < startByte || restartOffset > limit) {
+                throw new ItemStreamException("Saved byte offset " + restartOffset + " is outside of "
+                    + resource.getDescription());
+            }
+            position = restartOffset;
+            lineCount = restartLineCount;
+            return;
+        }
+
+        position = startByte;
+        lineCount = 0;
+        for (int i = 0; i < linesToSkip; i++) {
+            String line = readLine();
+            if (line != null && skippedLinesCallback != null) {
+                skippedLinesCallback.handleLine(line);
+            }
+        }
+    }
+
+    /**
+     * 바이트 위치로 복원된 경우 이미 다음 아이템 위치에 있으므로 아이템을 다시 읽지 않는다.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restartOffset < 0) {
+            super.jumpToItem(itemIndex);
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (noInput) {
+            return null;
+        }
+
+        String line = readLine();
+        while (line != null && isComment(line)) {
+            line = readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+
+        try {
+            return lineMapper.mapLine(line, lineCount);
+        } catch (Exception ex) {
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=["
+                + resource.getDescription() + "], input=[" + line + "]", ex, line, lineCount);
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        window = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * 현재 위치부터 개행 문자까지를 하나의 라인으로 읽는다. ("\r\n" 의 '\r' 은 제거한다.)
+     */
+    private String readLine() throws IOException {
+        if (position >= limit) {
+            return null;
+        }
+
+        int length = 0;
+        long index = position;
+        while (index < limit) {
+            byte b = byteAt(index++);
+            if (b == '\n') {
+                break;
+            }
+            if (length == lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, length * 2);
+            }
+            lineBuffer[length++] = b;
+        }
+        position = index;
+        lineCount++;
+
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+        return new String(lineBuffer, 0, length, charset);
+    }
+
+    private byte byteAt(long index) throws IOException {
+        if (window == null || index < windowStart || index >= windowStart + window.limit()) {
+            windowStart = index;
+            window = channel.map(MapMode.READ_ONLY, index, Math.min(windowSize, limit - index));
+        }
+        return window.get((int) (index - windowStart));
+    }
+
+    private boolean isComment(String line) {
+        for (String prefix : comments) {
+            if (line.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
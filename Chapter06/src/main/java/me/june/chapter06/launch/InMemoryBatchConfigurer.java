@@ -0,0 +1,45 @@
+package me.june.chapter06.launch;
+
+import org.springframework.batch.core.configuration.annotation.DefaultBatchConfigurer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * 메타데이터를 메모리 (임베디드 H2) 에만 저장하는 BatchConfigurer
+ * -> NoRunJob 의 step1 처럼 재시작이 필요 없는 짧은 잡은 MySQL JobRepository 를 사용하면
+ *    실행보다 메타데이터 insert/update 의 네트워크 왕복에 더 많은 시간을 쓴다.
+ * -> Map 기반 DAO (MapJobRepositoryFactoryBean) 는 Deprecated 되었으므로
+ *    JDBC JobRepository 를 그대로 사용하고 DataSource 만 애플리케이션마다 새로 만드는 인메모리 H2 로 바꾼다.
+ * -> 트랜잭션 매니저는 H2 DataSource 의 DataSourceTransactionManager 이다.
+ *    (스텝에서 다른 DB 에 쓴다면 그 DB 의 쓰기는 청크 트랜잭션에 묶이지 않는다.)
+ *
+ * batch.repository.in-memory=true 일 때만 등록된다. (NoRunJob 은 @Import 로 가져오고 기본값으로 켠다.)
+ * 애플리케이션이 종료되면 메타데이터는 사라지므로 실패한 잡을 재시작할 수 없다.
+ * 재시작이 필요한 잡은 MySQL JobRepository (기본 설정) 를 사용해야 한다.
+ */
+@ConditionalOnProperty(name = "batch.repository.in-memory", havingValue = "true")
+public class InMemoryBatchConfigurer extends DefaultBatchConfigurer implements DisposableBean {
+
+    private final EmbeddedDatabase dataSource;
+
+    public InMemoryBatchConfigurer() {
+        this(new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+            .build());
+    }
+
+    private InMemoryBatchConfigurer(EmbeddedDatabase dataSource) {
+        super(dataSource);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package me.june.chapter06.launch;
+
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * QuartzConfiguration, RestApplication 이 함께 사용하는 JobParametersIncrementerService 설정
+ * -> 각 설정에서 같은 이름의 빈을 정의하면 두 설정이 함께 스캔될 때 (Chapter06Application) 빈 이름이 충돌하므로 한곳에서 정의하고 @Import 한다.
+ * -> 캐시가 하나이므로 스케줄러와 REST 요청이 같은 잡을 실행하더라도 파라미터가 충돌하지 않는다.
+ */
+@Configuration
+public class JobParametersIncrementerConfiguration {
+
+    @Bean
+    public JobParametersIncrementerService jobParametersIncrementerService(JobExplorer jobExplorer) {
+        return new JobParametersIncrementerService(jobExplorer);
+    }
+}
@@ -0,0 +1,113 @@
+package me.june.chapter06.launch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.util.Assert;
+
+/**
+ * JobParametersBuilder.getNextJobParameters(job) 를 캐시하는 서비스
+ * -> getNextJobParameters 는 호출마다 JobRepository 에서 마지막 JobInstance 와 JobExecution 을 조회한다.
+ * -> 잡 이름별로 마지막에 사용한 JobParameters 를 메모리에 보관하고, 다음 파라미터는 이 값에 incrementer 를 적용해서 만든다.
+ * -> 캐시에 없을때, 또는 다른 곳에서 같은 파라미터로 실행해 충돌이 발생했을때만 JobRepository 를 다시 조회한다.
+ *
+ * 마지막 실행이 실패 (FAILED) 또는 중지 (STOPPED) 되었고 잡이 재시작 가능하다면, incrementer 를 적용하지 않고 마지막 파라미터를 그대로 사용해 재시작한다.
+ * -> 스프링 부트의 JobLauncherApplicationRunner 와 같은 규칙이다.
+ * -> run 으로 실행한 JobExecution 을 함께 보관한다. 잡이 진행되면서 같은 객체의 상태가 바뀌므로 (비동기 실행 포함) 상태 확인을 위해 조회하지 않는다.
+ *
+ * 파라미터 계산은 잡 이름별로 원자적으로 수행되므로 동시에 실행해도 같은 파라미터가 두번 사용되지 않는다.
+ * -> 재시작은 예외로, 동시에 재시작하면 한쪽은 충돌 후 JobRepository 를 다시 조회해 다음 파라미터로 실행된다.
+ */
+public class JobParametersIncrementerService {
+
+    private JobExplorer jobExplorer;
+
+    private final Map<String, JobParameters> lastJobParameters = new ConcurrentHashMap<>();
+    private final Map<String, JobExecution> lastJobExecutions = new ConcurrentHashMap<>();
+
+    public JobParametersIncrementerService(JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    /**
+     * @param jobParameters incrementer 가 만든 (또는 재시작할) 파라미터에 추가 (같은 키는 덮어쓴다) 할 파라미터
+     */
+    public JobParameters getNextJobParameters(Job job, JobParameters jobParameters) {
+        JobParametersIncrementer incrementer = job.getJobParametersIncrementer();
+        Assert.notNull(incrementer, "No job parameters incrementer found for job=" + job.getName());
+
+        return lastJobParameters.compute(job.getName(), (jobName, last) -> {
+            JobExecution lastExecution = lastJobExecutions.get(jobName);
+            if (last == null) {
+                lastExecution = findLastJobExecution(jobName);
+                if (lastExecution == null) {
+                    return merge(incrementer.getNext(new JobParameters()), jobParameters);
+                }
+                lastJobExecutions.put(jobName, lastExecution);
+                last = lastExecution.getJobParameters();
+            }
+
+            if (isRestartable(job, last, lastExecution)) {
+                return merge(last, jobParameters);
+            }
+            return merge(incrementer.getNext(last), jobParameters);
+        });
+    }
+
+    /**
+     * 다음 파라미터로 잡을 실행한다.
+     * -> 캐시된 파라미터가 JobRepository 와 달라 충돌이 발생하면, 캐시를 버리고 JobRepository 기준으로 한번 더 시도한다.
+     */
+    public JobExecution run(JobLauncher jobLauncher, Job job, JobParameters jobParameters) throws JobExecutionException {
+        JobParameters nextJobParameters = getNextJobParameters(job, jobParameters);
+        JobExecution execution;
+        try {
+            execution = jobLauncher.run(job, nextJobParameters);
+        } catch (JobInstanceAlreadyCompleteException | JobExecutionAlreadyRunningException e) {
+            if (lastJobParameters.remove(job.getName(), nextJobParameters)) {
+                lastJobExecutions.remove(job.getName());
+            }
+            execution = jobLauncher.run(job, getNextJobParameters(job, jobParameters));
+        }
+        lastJobExecutions.put(job.getName(), execution);
+        return execution;
+    }
+
+    public void invalidate(String jobName) {
+        lastJobParameters.remove(jobName);
+        lastJobExecutions.remove(jobName);
+    }
+
+    private JobExecution findLastJobExecution(String jobName) {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(jobName);
+        return lastInstance == null ? null : jobExplorer.getLastJobExecution(lastInstance);
+    }
+
+    /**
+     * 마지막으로 사용한 파라미터의 실행이 실패 또는 중지되었고, 잡이 재시작 가능한지 확인한다.
+     */
+    private boolean isRestartable(Job job, JobParameters last, JobExecution lastExecution) {
+        if (lastExecution == null || !job.isRestartable() || !last.equals(lastExecution.getJobParameters())) {
+            return false;
+        }
+        BatchStatus status = lastExecution.getStatus();
+        return status == BatchStatus.FAILED || status == BatchStatus.STOPPED;
+    }
+
+    private JobParameters merge(JobParameters jobParameters, JobParameters additional) {
+        return new JobParametersBuilder(jobParameters)
+            .addJobParameters(additional)
+            .toJobParameters();
+    }
+}
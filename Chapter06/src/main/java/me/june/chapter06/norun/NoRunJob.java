@@ -1,6 +1,8 @@
 package me.june.chapter06.norun;
 
+import java.util.Collections;
 import java.util.Properties;
+import me.june.chapter06.launch.InMemoryBatchConfigurer;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -10,10 +12,21 @@ import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
 
+/**
+ * 재시작이 필요 없는 짧은 잡이므로 메타데이터는 InMemoryBatchConfigurer 의 인메모리 H2 에 저장한다.
+ * -> 인메모리일 때는 MySQL 에 메타데이터 테이블을 만들지 않는다. (--batch.repository.in-memory=false 로 실행하면 기존처럼 MySQL 을 사용하고 스키마도 초기화한다.)
+ */
 @EnableBatchProcessing
 @SpringBootApplication
+@Import(InMemoryBatchConfigurer.class)
 public class NoRunJob {
 
     @Autowired
@@ -43,8 +56,32 @@ public class NoRunJob {
         SpringApplication application = new SpringApplication(NoRunJob.class);
         Properties properties = new Properties();
         properties.put("spring.batch.job.enabled", false);
+        properties.put("batch.repository.in-memory", true);
         application.setDefaultProperties(properties);
+        application.addInitializers(NoRunJob::disableSchemaInitializationWhenInMemory);
 
         application.run(args);
     }
+
+    /**
+     * 인메모리 JobRepository 를 사용할 때만 MySQL 에 메타데이터 테이블을 만들지 않는다. (spring.batch.jdbc.initialize-schema=never)
+     * -> application.yaml 의 always 보다 우선해야 하므로 기본 프로퍼티가 아닌 커맨드라인 인자 바로 다음에 추가한다.
+     *    (커맨드라인으로 직접 지정한 값은 그대로 사용된다.)
+     * -> --batch.repository.in-memory=false 로 실행하면 application.yaml 설정대로 MySQL 스키마를 초기화한다.
+     */
+    static void disableSchemaInitializationWhenInMemory(ConfigurableApplicationContext context) {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        if (!environment.getProperty("batch.repository.in-memory", Boolean.class, false)) {
+            return;
+        }
+
+        MutablePropertySources propertySources = environment.getPropertySources();
+        MapPropertySource inMemory = new MapPropertySource("inMemoryJobRepository",
+            Collections.singletonMap("spring.batch.jdbc.initialize-schema", "never"));
+        if (propertySources.contains(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME)) {
+            propertySources.addAfter(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME, inMemory);
+        } else {
+            propertySources.addFirst(inMemory);
+        }
+    }
 }
@@ -3,34 +3,29 @@ package me.june.chapter06.quartz;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.explore.JobExplorer;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
+/**
+ * 잡 실행은 ScheduledJobLauncher 에 위임한다.
+ * -> Quartz 워커 스레드는 실행 요청만 하고 바로 반환된다.
+ * -> 이전 실행이 끝나지 않았다면 이번 트리거는 건너뛴다.
+ * -> JobParameters 는 트리거마다 JobRepository 를 조회하지 않도록 JobParametersIncrementerService 로 계산한다.
+ */
 public class BatchScheduledJob extends QuartzJobBean {
 
     @Autowired
     private Job job;
 
     @Autowired
-    private JobExplorer jobExplorer;
-
-    @Autowired
-    private JobLauncher jobLauncher;
+    private ScheduledJobLauncher scheduledJobLauncher;
 
     @Override
     protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
-        JobParameters jobParameters = new JobParametersBuilder(jobExplorer)
-            .getNextJobParameters(job)
-            .toJobParameters();
-
         try {
-            this.jobLauncher.run(this.job, jobParameters);
-        } catch (Exception e) {
-            e.printStackTrace();
+            this.scheduledJobLauncher.launch(this.job, context.getScheduledFireTime());
+        } catch (RuntimeException e) {
+            throw new JobExecutionException(e);
         }
     }
 }
@@ -1,19 +1,26 @@
 package me.june.chapter06.quartz;
 
+import me.june.chapter06.launch.JobParametersIncrementerConfiguration;
+import me.june.chapter06.launch.JobParametersIncrementerService;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.SimpleScheduleBuilder;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableBatchProcessing
 @SpringBootApplication
+@Import(JobParametersIncrementerConfiguration.class)
 public class QuartzConfiguration {
 
     @Bean
@@ -23,6 +30,28 @@ public class QuartzConfiguration {
             .build();
     }
 
+    /**
+     * 잡 실행 전용 스레드풀
+     * -> 같은 잡은 동시에 하나만 실행되므로 스케줄링하는 잡의 수 만큼이면 충분하다.
+     */
+    @Bean
+    public TaskExecutor scheduledJobTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(2);
+        taskExecutor.setMaxPoolSize(2);
+        taskExecutor.setQueueCapacity(0);
+        taskExecutor.setThreadNamePrefix("scheduled-job-");
+        return taskExecutor;
+    }
+
+    @Bean
+    public ScheduledJobLauncher scheduledJobLauncher(
+        JobLauncher jobLauncher,
+        JobParametersIncrementerService jobParametersIncrementerService
+    ) {
+        return new ScheduledJobLauncher(jobLauncher, jobParametersIncrementerService, scheduledJobTaskExecutor());
+    }
+
     @Bean
     public Trigger jobTrigger() {
         SimpleScheduleBuilder scheduleBuilder = SimpleScheduleBuilder.simpleSchedule()
@@ -0,0 +1,99 @@
+package me.june.chapter06.quartz;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import me.june.chapter06.launch.JobParametersIncrementerService;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Quartz 트리거와 JobLauncher 사이의 연결 역할을 한다.
+ * -> 잡 실행은 TaskExecutor 에서 수행하므로 Quartz 워커 스레드는 잡이 끝날때 까지 기다리지 않는다.
+ * -> 같은 이름의 잡이 아직 실행중이라면 이번 트리거는 실행하지 않고 건너뛴다. (느린 실행이 쌓여 Quartz 스레드풀을 막지 않도록)
+ * -> 트리거 예정 시각 ~ 잡 시작, 잡 시작 ~ 잡 종료 시간을 Micrometer 히스토그램으로 기록한다.
+ */
+@Slf4j
+public class ScheduledJobLauncher {
+
+    private JobLauncher jobLauncher;
+    private JobParametersIncrementerService jobParametersIncrementerService;
+    private TaskExecutor taskExecutor;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
+    public ScheduledJobLauncher(JobLauncher jobLauncher, JobParametersIncrementerService jobParametersIncrementerService,
+        TaskExecutor taskExecutor) {
+        this.jobLauncher = jobLauncher;
+        this.jobParametersIncrementerService = jobParametersIncrementerService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * JobParameters 는 JobParametersIncrementerService 로 다음 파라미터를 계산해서 사용한다.
+     *
+     * @return 실행을 요청했다면 true, 이전 실행이 끝나지 않아 건너뛰었다면 false
+     */
+    public boolean launch(Job job, Date scheduledFireTime) {
+        AtomicBoolean jobRunning = running.computeIfAbsent(job.getName(), name -> new AtomicBoolean());
+
+        if (!jobRunning.compareAndSet(false, true)) {
+            log.info("Skipping trigger for {} because the previous execution is still running", job.getName());
+            Counter.builder("batch.scheduled.skipped")
+                .tag("job", job.getName())
+                .register(meterRegistry)
+                .increment();
+            return false;
+        }
+
+        try {
+            taskExecutor.execute(() -> run(job, scheduledFireTime, jobRunning));
+        } catch (RuntimeException e) {
+            jobRunning.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    private void run(Job job, Date scheduledFireTime, AtomicBoolean jobRunning) {
+        try {
+            JobExecution execution = jobParametersIncrementerService.run(jobLauncher, job, new JobParameters());
+
+            if (execution.getStartTime() != null) {
+                timer("batch.scheduled.trigger.to.start", job)
+                    .record(Duration.ofMillis(execution.getStartTime().getTime() - scheduledFireTime.getTime()));
+
+                if (execution.getEndTime() != null) {
+                    timer("batch.scheduled.start.to.end", job)
+                        .record(Duration.ofMillis(execution.getEndTime().getTime() - execution.getStartTime().getTime()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to launch {}", job.getName(), e);
+        } finally {
+            jobRunning.set(false);
+        }
+    }
+
+    private Timer timer(String name, Job job) {
+        return Timer.builder(name)
+            .tag("job", job.getName())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
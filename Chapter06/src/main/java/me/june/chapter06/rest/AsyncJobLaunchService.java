@@ -0,0 +1,137 @@
+package me.june.chapter06.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import me.june.chapter06.launch.JobParametersIncrementerService;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * REST 요청 스레드를 막지 않도록 잡을 비동기로 실행하고, 실행 상태를 조회하는 서비스
+ * -> SimpleJobLauncher 에 TaskExecutor 를 지정하면 JobExecution 을 생성한 직후 반환된다.
+ * -> 동시에 실행/대기할 수 있는 잡의 수를 Semaphore 로 제한하고, 가득 찼다면 실행하지 않는다. (컨트롤러에서 429 로 응답)
+ *
+ * 실행 상태 조회
+ * -> 이 서비스로 실행한 잡은 실행중인 JobExecution 객체를 그대로 사용하므로 JobRepository 를 조회하지 않는다.
+ * -> 그 외의 잡은 JobExplorer 로 조회한 결과를 cacheTtlMillis 동안 캐시한다. 종료된 실행은 변하지 않으므로 LRU 로 제거될때 까지 유지한다.
+ */
+public class AsyncJobLaunchService {
+
+    private static final int MAX_CACHED_EXECUTIONS = 1_000;
+
+    private SimpleJobLauncher jobLauncher;
+    private JobParametersIncrementerService jobParametersIncrementerService;
+    private JobExplorer jobExplorer;
+    private Semaphore permits;
+    private long cacheTtlMillis;
+
+    private final Map<Long, JobExecution> launchedExecutions = new ConcurrentHashMap<>();
+    private final Map<Long, CachedExecution> cachedExecutions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedExecution> eldest) {
+            return size() > MAX_CACHED_EXECUTIONS;
+        }
+    };
+
+    public AsyncJobLaunchService(JobRepository jobRepository, JobExplorer jobExplorer,
+        JobParametersIncrementerService jobParametersIncrementerService, TaskExecutor taskExecutor,
+        int maxConcurrentLaunches, long cacheTtlMillis) throws Exception {
+        this.jobExplorer = jobExplorer;
+        this.jobParametersIncrementerService = jobParametersIncrementerService;
+        this.permits = new Semaphore(maxConcurrentLaunches);
+        this.cacheTtlMillis = cacheTtlMillis;
+
+        this.jobLauncher = new SimpleJobLauncher();
+        this.jobLauncher.setJobRepository(jobRepository);
+        this.jobLauncher.setTaskExecutor(task -> {
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                permits.release();
+                throw e;
+            }
+        });
+        this.jobLauncher.afterPropertiesSet();
+    }
+
+    /**
+     * @param jobParameters incrementer 가 만든 파라미터에 추가할 파라미터
+     * @return 실행한 JobExecution, 실행 가능한 수를 초과했다면 Optional.empty()
+     */
+    public Optional<JobExecution> tryLaunch(Job job, JobParameters jobParameters) throws Exception {
+        if (!permits.tryAcquire()) {
+            return Optional.empty();
+        }
+
+        JobExecution execution;
+        try {
+            execution = jobParametersIncrementerService.run(jobLauncher, job, jobParameters);
+        } catch (Exception e) {
+            permits.release(); // TaskExecutor 에 전달되기 전에 실패한 경우
+            throw e;
+        }
+
+        launchedExecutions.values().removeIf(launched -> !launched.isRunning());
+        if (execution.isRunning()) {
+            launchedExecutions.put(execution.getId(), execution);
+        }
+        return Optional.of(execution);
+    }
+
+    public Optional<JobExecution> getJobExecution(long executionId) {
+        JobExecution launched = launchedExecutions.get(executionId);
+        if (launched != null) {
+            if (launched.isRunning()) {
+                return Optional.of(launched);
+            }
+            launchedExecutions.remove(executionId);
+            synchronized (cachedExecutions) {
+                cachedExecutions.put(executionId, new CachedExecution(launched, System.currentTimeMillis()));
+            }
+            return Optional.of(launched);
+        }
+
+        synchronized (cachedExecutions) {
+            CachedExecution cached = cachedExecutions.get(executionId);
+            if (cached != null && (!cached.execution.isRunning()
+                || System.currentTimeMillis() - cached.loadedAt < cacheTtlMillis)) {
+                return Optional.of(cached.execution);
+            }
+        }
+
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null) {
+            return Optional.empty();
+        }
+        synchronized (cachedExecutions) {
+            cachedExecutions.put(executionId, new CachedExecution(execution, System.currentTimeMillis()));
+        }
+        return Optional.of(execution);
+    }
+
+    private static class CachedExecution {
+
+        private final JobExecution execution;
+        private final long loadedAt;
+
+        CachedExecution(JobExecution execution, long loadedAt) {
+            this.execution = execution;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
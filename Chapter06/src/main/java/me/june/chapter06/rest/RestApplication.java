@@ -1,30 +1,48 @@
 package me.june.chapter06.rest;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import me.june.chapter06.launch.JobParametersIncrementerConfiguration;
+import me.june.chapter06.launch.JobParametersIncrementerService;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 @EnableBatchProcessing
 @SpringBootApplication
+@Import(JobParametersIncrementerConfiguration.class)
 public class RestApplication {
 
     @Autowired
@@ -41,6 +59,30 @@ public class RestApplication {
             .build();
     }
 
+    /**
+     * /launch 요청으로 실행되는 잡을 위한 스레드풀
+     * -> 스레드풀 크기 + 큐 크기 만큼만 실행 요청을 받는다.
+     */
+    @Bean
+    public TaskExecutor jobLaunchTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.setMaxPoolSize(4);
+        taskExecutor.setQueueCapacity(16);
+        taskExecutor.setThreadNamePrefix("job-launch-");
+        return taskExecutor;
+    }
+
+    @Bean
+    public AsyncJobLaunchService asyncJobLaunchService(
+        JobRepository jobRepository,
+        JobExplorer jobExplorer,
+        JobParametersIncrementerService jobParametersIncrementerService
+    ) throws Exception {
+        return new AsyncJobLaunchService(jobRepository, jobExplorer, jobParametersIncrementerService,
+            jobLaunchTaskExecutor(), 4 + 16, 1_000);
+    }
+
     @Bean
     public Step step1() {
         return this.stepBuilderFactory.get("step1")
@@ -61,15 +103,92 @@ public class RestApplication {
         private ApplicationContext context;
 
         @Autowired
-        private JobExplorer explorer;
+        private AsyncJobLaunchService asyncJobLaunchService;
+
+        @Autowired
+        private JobParametersIncrementerService jobParametersIncrementerService;
 
+        /**
+         * JobParametersBuilder(jobParameters, explorer).getNextJobParameters(job) 는 요청마다 JobRepository 를 조회하므로
+         * 마지막 파라미터를 캐시하는 JobParametersIncrementerService 로 다음 파라미터를 계산한다. (RunIdIncrementor 활성화)
+         */
         @PostMapping("/run")
         public ExitStatus runJob(@RequestBody JobLaunchRequest request) throws Exception {
             Job job = this.context.getBean(request.getName(), Job.class);
-            JobParameters jobParameters = new JobParametersBuilder(request.getJobParameters(), explorer)
-                .getNextJobParameters(job) // RunIdIncrementor 활성화
-                .toJobParameters();
-            return this.jobLauncher.run(job, jobParameters).getExitStatus();
+            return this.jobParametersIncrementerService.run(this.jobLauncher, job, request.getJobParameters())
+                .getExitStatus();
+        }
+
+        /**
+         * 잡이 끝날때 까지 기다리지 않고 JobExecution 의 id 를 바로 반환한다.
+         * -> 동시에 실행할 수 있는 잡의 수를 초과하면 429 (Too Many Requests) 로 응답한다.
+         * -> 실행 상태는 GET /executions/{id} 로 조회한다.
+         */
+        @PostMapping("/launch")
+        public ResponseEntity<JobLaunchResponse> launchJob(@RequestBody JobLaunchRequest request) throws Exception {
+            Job job = this.context.getBean(request.getName(), Job.class);
+
+            return this.asyncJobLaunchService.tryLaunch(job, request.getJobParameters())
+                .map(execution -> ResponseEntity.status(HttpStatus.ACCEPTED).body(new JobLaunchResponse(execution.getId())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+        }
+
+        @GetMapping("/executions/{executionId}")
+        public ResponseEntity<JobExecutionView> getExecution(@PathVariable long executionId) {
+            return this.asyncJobLaunchService.getJobExecution(executionId)
+                .map(execution -> ResponseEntity.ok(new JobExecutionView(execution)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class JobLaunchResponse {
+
+        private Long executionId;
+    }
+
+    @Getter
+    public static class JobExecutionView {
+
+        private Long executionId;
+        private String jobName;
+        private BatchStatus status;
+        private String exitCode;
+        private Date startTime;
+        private Date endTime;
+        private List<StepExecutionView> steps = new ArrayList<>();
+
+        public JobExecutionView(JobExecution execution) {
+            this.executionId = execution.getId();
+            this.jobName = execution.getJobInstance().getJobName();
+            this.status = execution.getStatus();
+            this.exitCode = execution.getExitStatus().getExitCode();
+            this.startTime = execution.getStartTime();
+            this.endTime = execution.getEndTime();
+            for (StepExecution stepExecution : new ArrayList<>(execution.getStepExecutions())) {
+                this.steps.add(new StepExecutionView(stepExecution));
+            }
+        }
+    }
+
+    @Getter
+    public static class StepExecutionView {
+
+        private String stepName;
+        private BatchStatus status;
+        private int readCount;
+        private int writeCount;
+        private int commitCount;
+        private int skipCount;
+
+        public StepExecutionView(StepExecution stepExecution) {
+            this.stepName = stepExecution.getStepName();
+            this.status = stepExecution.getStatus();
+            this.readCount = stepExecution.getReadCount();
+            this.writeCount = stepExecution.getWriteCount();
+            this.commitCount = stepExecution.getCommitCount();
+            this.skipCount = stepExecution.getSkipCount();
         }
     }
 
@@ -0,0 +1,110 @@
+package me.june.chapter06.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class AsyncItemProcessorTest {
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.setMaxPoolSize(4);
+        taskExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void writerReceivesItemsInReadOrderEvenWhenProcessingFinishesOutOfOrder() throws Exception {
+        // 먼저 읽은 아이템일수록 늦게 끝나도록 한다.
+        AsyncItemProcessor<Integer, String> processor = new AsyncItemProcessor<>(item -> {
+            Thread.sleep((5 - item) * 20L);
+            return "item-" + item;
+        }, taskExecutor);
+        List<String> written = new ArrayList<>();
+        AsyncItemWriter<String> writer = new AsyncItemWriter<>(written::addAll);
+
+        writer.write(processAll(processor, List.of(1, 2, 3, 4)));
+
+        assertThat(written).containsExactly("item-1", "item-2", "item-3", "item-4");
+    }
+
+    @Test
+    void filteredItemsAreNotWritten() throws Exception {
+        AsyncItemProcessor<Integer, Integer> processor =
+            new AsyncItemProcessor<>(item -> item % 2 == 0 ? null : item, taskExecutor);
+        List<Integer> written = new ArrayList<>();
+        AsyncItemWriter<Integer> writer = new AsyncItemWriter<>(written::addAll);
+
+        writer.write(processAll(processor, List.of(1, 2, 3, 4, 5)));
+
+        assertThat(written).containsExactly(1, 3, 5);
+    }
+
+    @Test
+    void processingFailureIsRethrownUnwrappedAndNothingIsWritten() throws Exception {
+        IllegalArgumentException failure = new IllegalArgumentException("bad item");
+        AsyncItemProcessor<Integer, Integer> processor = new AsyncItemProcessor<>(item -> {
+            if (item == 2) {
+                throw failure;
+            }
+            return item;
+        }, taskExecutor);
+        List<Integer> written = new ArrayList<>();
+        AsyncItemWriter<Integer> writer = new AsyncItemWriter<>(written::addAll);
+
+        List<Future<Integer>> futures = processAll(processor, List.of(1, 2, 3));
+
+        // 스킵/재시도 정책이 예외 타입으로 판단할 수 있도록 ExecutionException 이 아닌 원래 예외가 던져져야 한다.
+        assertThatThrownBy(() -> writer.write(futures)).isSameAs(failure);
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void stepExecutionIsRegisteredOnWorkerThread() throws Exception {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        CountDownLatch latch = new CountDownLatch(1);
+        AsyncItemProcessor<Integer, StepExecution> processor = new AsyncItemProcessor<>(item -> {
+            latch.countDown();
+            return StepSynchronizationManager.getContext().getStepExecution();
+        }, taskExecutor);
+
+        StepSynchronizationManager.register(stepExecution);
+        Future<StepExecution> future;
+        try {
+            future = processor.process(1);
+        } finally {
+            StepSynchronizationManager.close();
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(future.get()).isSameAs(stepExecution);
+    }
+
+    private <I, O> List<Future<O>> processAll(AsyncItemProcessor<I, O> processor, List<I> items) throws Exception {
+        List<Future<O>> futures = new ArrayList<>();
+        for (I item : items) {
+            futures.add(processor.process(item));
+        }
+        return futures;
+    }
+}
@@ -0,0 +1,62 @@
+package me.june.chapter06.csv;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import me.june.chapter06.csv.domain.AccountSummary;
+import me.june.chapter06.csv.domain.TransactionDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class TransactionApplierWriterTest {
+
+    private EmbeddedDatabase dataSource;
+    private TransactionDao transactionDao;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        transactionDao = new TransactionDao(dataSource);
+        transactionDao.execute("create table Account_Summary (id int primary key, account_number varchar(10), "
+            + "current_balance decimal(10, 2))");
+        transactionDao.execute("create table Transactions (id int primary key, timestamp timestamp, "
+            + "amount decimal(8, 2), account_summary_id int)");
+        transactionDao.update("insert into Account_Summary values (1, '1000', 100.00), (2, '2000', 50.00), (3, '3000', 0.00)");
+        transactionDao.update("insert into Transactions (id, amount, account_summary_id) values "
+            + "(1, 10.50, 1), (2, -0.50, 1), (3, 25.00, 2)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    /**
+     * 청크의 계좌 합계를 한번의 쿼리로 조회해 잔액에 더한다. (거래내역이 없는 계좌는 그대로)
+     */
+    @Test
+    void appliesChunkSumsBeforeDelegating() throws Exception {
+        List<AccountSummary> written = new ArrayList<>();
+        TransactionApplierWriter writer = new TransactionApplierWriter(transactionDao, written::addAll);
+
+        writer.write(List.of(account("1000", 100.0), account("2000", 50.0), account("3000", 0.0)));
+
+        assertThat(written).extracting(AccountSummary::getAccountNumber).containsExactly("1000", "2000", "3000");
+        assertThat(written).extracting(AccountSummary::getCurrentBalance).containsExactly(110.0, 75.0, 0.0);
+    }
+
+    private AccountSummary account(String accountNumber, double currentBalance) {
+        AccountSummary accountSummary = new AccountSummary();
+        accountSummary.setAccountNumber(accountNumber);
+        accountSummary.setCurrentBalance(currentBalance);
+        return accountSummary;
+    }
+}
@@ -0,0 +1,68 @@
+package me.june.chapter06.csv;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import me.june.chapter06.csv.domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ParseException;
+
+class TransactionLineParserTest {
+
+    private final TransactionLineParser parser = new TransactionLineParser();
+
+    @Test
+    void parseTransaction() throws Exception {
+        Transaction transaction = parser.parse("51524, 2018-01-13 18:53:29, -751.06 ");
+
+        assertThat(transaction.getAccountNumber()).isEqualTo("51524");
+        assertThat(transaction.getTimestamp()).isEqualTo(date("yyyy-MM-dd HH:mm:ss", "2018-01-13 18:53:29"));
+        assertThat(transaction.getAmount()).isEqualTo(-751.06);
+    }
+
+    /**
+     * 이전 매퍼의 패턴 (yyyy-MM-DD) 은 DD 를 day-of-year 로 읽기 때문에 1월이 아닌 날짜는 다른 날짜가 된다.
+     */
+    @Test
+    void timestampIsReadAsDayOfMonth() throws Exception {
+        Transaction transaction = parser.parse("51524,2018-03-05 10:00:00,1.5");
+
+        assertThat(transaction.getTimestamp()).isEqualTo(date("yyyy-MM-dd HH:mm:ss", "2018-03-05 10:00:00"));
+        assertThat(date("yyyy-MM-DD HH:mm:ss", "2018-03-05 10:00:00"))
+            .isEqualTo(date("yyyy-MM-dd HH:mm:ss", "2018-01-05 10:00:00"));
+    }
+
+    @Test
+    void amountOutsideOfFastPathFallsBackToParseDouble() {
+        assertThat(parser.parse("1,2018-01-13 18:53:29,1234567890.1234567").getAmount())
+            .isEqualTo(Double.parseDouble("1234567890.1234567"));
+    }
+
+    @Test
+    void footer() {
+        assertThat(parser.isFooter("3")).isTrue();
+        assertThat(parser.isFooter("1,2018-01-13 18:53:29,1")).isFalse();
+        assertThat(parser.parseFooter(" 3 ")).isEqualTo(3);
+        assertThatThrownBy(() -> parser.parseFooter("three")).isInstanceOf(ParseException.class);
+    }
+
+    @Test
+    void malformedLines() {
+        assertThatThrownBy(() -> parser.parse("51524,2018-01-13 18:53:29"))
+            .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> parser.parse("51524,2018-01-13,751.06"))
+            .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> parser.parse("51524,2018-0a-13 18:53:29,751.06"))
+            .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> parser.parse("51524,2018-01-13 18:53:29,75x.06"))
+            .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> parser.parse("51524,2018-01-13 18:53:29,"))
+            .isInstanceOf(ParseException.class);
+    }
+
+    private static Date date(String pattern, String value) throws Exception {
+        return new SimpleDateFormat(pattern).parse(value);
+    }
+}
@@ -0,0 +1,104 @@
+package me.june.chapter06.csv.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import me.june.chapter06.file.MappedFlatFileItemReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+class TransactionFilePartitionerTest {
+
+    @TempDir
+    File tempDir;
+
+    /**
+     * 라인 길이가 제각각이어도 파티션들은 빈틈없이 이어지고, 모든 파티션을 읽은 결과는 파일의 라인과 정확히 같다. (누락, 중복 없음)
+     */
+    @Test
+    void partitionsNeitherDropNorDuplicateLines() throws Exception {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add(i + ",".repeat(random.nextInt(40)));
+        }
+        File file = write(String.join("\n", lines) + "\n");
+
+        for (int gridSize = 1; gridSize <= 16; gridSize++) {
+            List<ExecutionContext> partitions = partitions(file, gridSize);
+
+            assertThat(partitions).isNotEmpty().hasSizeLessThanOrEqualTo(gridSize);
+            long expectedStart = 0;
+            for (ExecutionContext partition : partitions) {
+                assertThat(partition.getLong(TransactionFilePartitioner.START_BYTE_KEY)).isEqualTo(expectedStart);
+                expectedStart = partition.getLong(TransactionFilePartitioner.END_BYTE_KEY);
+            }
+            assertThat(expectedStart).isEqualTo(file.length());
+
+            assertThat(readAll(file, partitions)).as("gridSize=%d", gridSize).isEqualTo(lines);
+        }
+    }
+
+    /**
+     * 마지막 라인에 개행 문자가 없고, 라인 수보다 gridSize 가 큰 경우에도 빈 파티션을 만들지 않는다.
+     */
+    @Test
+    void moreGridThanLines() throws Exception {
+        File file = write("a-long-first-line\nb\nc");
+
+        List<ExecutionContext> partitions = partitions(file, 10);
+
+        for (ExecutionContext partition : partitions) {
+            assertThat(partition.getLong(TransactionFilePartitioner.END_BYTE_KEY))
+                .isGreaterThan(partition.getLong(TransactionFilePartitioner.START_BYTE_KEY));
+        }
+        assertThat(readAll(file, partitions)).containsExactly("a-long-first-line", "b", "c");
+    }
+
+    private File write(String content) throws Exception {
+        File file = new File(tempDir, "transactions.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<ExecutionContext> partitions(File file, int gridSize) {
+        Map<String, ExecutionContext> partitions =
+            new TransactionFilePartitioner(new FileSystemResource(file)).partition(gridSize);
+        List<ExecutionContext> sorted = new ArrayList<>(partitions.values());
+        sorted.sort(Comparator.comparingLong(context -> context.getLong(TransactionFilePartitioner.START_BYTE_KEY)));
+        return sorted;
+    }
+
+    /**
+     * 워커 스텝처럼 파티션마다 MappedFlatFileItemReader 로 바이트 범위를 읽는다. (윈도우를 작게 해서 경계에 걸친 라인도 확인)
+     */
+    private List<String> readAll(File file, List<ExecutionContext> partitions) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (ExecutionContext partition : partitions) {
+            MappedFlatFileItemReader<String> reader = new MappedFlatFileItemReader<>();
+            reader.setResource(new FileSystemResource(file));
+            reader.setLineMapper(new PassThroughLineMapper());
+            reader.setWindowSize(13);
+            reader.setStartByte(partition.getLong(TransactionFilePartitioner.START_BYTE_KEY));
+            reader.setEndByte(partition.getLong(TransactionFilePartitioner.END_BYTE_KEY));
+            reader.afterPropertiesSet();
+            reader.open(new ExecutionContext());
+            String line;
+            while ((line = reader.read()) != null) {
+                lines.add(line);
+            }
+            reader.close();
+        }
+        return lines;
+    }
+}
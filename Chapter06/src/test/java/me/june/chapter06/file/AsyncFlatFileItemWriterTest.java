@@ -0,0 +1,132 @@
+package me.june.chapter06.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.transform.PassThroughLineAggregator;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class AsyncFlatFileItemWriterTest {
+
+    private static final String POSITION_KEY = "writer.position";
+
+    @TempDir
+    File tempDir;
+
+    private File file;
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @BeforeEach
+    void setUp() {
+        file = new File(tempDir, "output.csv");
+    }
+
+    @Test
+    void committedPositionIsWrittenBeforeCommit() throws Exception {
+        AsyncFlatFileItemWriter<String> writer = writer();
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+
+        commitChunk(writer, executionContext, List.of("a", "b"));
+
+        assertThat(file.length()).isEqualTo(executionContext.getLong(POSITION_KEY));
+        assertThat(content()).isEqualTo("a\nb\n");
+        writer.close();
+    }
+
+    @Test
+    void rolledBackChunkIsRemovedFromFile() throws Exception {
+        AsyncFlatFileItemWriter<String> writer = writer();
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+
+        commitChunk(writer, executionContext, List.of("a"));
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            write(writer, List.of("rolled-back"));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+        commitChunk(writer, executionContext, List.of("b"));
+
+        writer.close();
+        assertThat(content()).isEqualTo("a\nb\n");
+    }
+
+    /**
+     * 커밋된 위치 이후에 쓰여진 바이트가 있더라도 재시작시 저장된 위치로 잘라내고 이어서 쓴다.
+     */
+    @Test
+    void restartFromCommittedPosition() throws Exception {
+        AsyncFlatFileItemWriter<String> writer = writer();
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+
+        commitChunk(writer, executionContext, List.of("a", "b"));
+        ExecutionContext committed = new ExecutionContext(executionContext);
+
+        // 다음 청크를 쓰던 중 중단된 상황 (ExecutionContext 는 커밋되지 않았다.)
+        write(writer, List.of("lost"));
+        writer.close();
+
+        AsyncFlatFileItemWriter<String> restarted = writer();
+        restarted.open(committed);
+        commitChunk(restarted, committed, List.of("c"));
+        restarted.close();
+
+        assertThat(content()).isEqualTo("a\nb\nc\n");
+        assertThat(file.length()).isEqualTo(committed.getLong(POSITION_KEY));
+    }
+
+    @Test
+    void writeWithoutTransactionIsFlushedOnUpdate() throws Exception {
+        AsyncFlatFileItemWriter<String> writer = writer();
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+
+        write(writer, List.of("a"));
+        writer.update(executionContext);
+
+        assertThat(file.length()).isEqualTo(executionContext.getLong(POSITION_KEY));
+        writer.close();
+    }
+
+    private void commitChunk(AsyncFlatFileItemWriter<String> writer, ExecutionContext executionContext, List<String> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            write(writer, items);
+            writer.update(executionContext);
+        });
+    }
+
+    private void write(AsyncFlatFileItemWriter<String> writer, List<String> items) {
+        try {
+            writer.write(items);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AsyncFlatFileItemWriter<String> writer() {
+        AsyncFlatFileItemWriter<String> writer = new AsyncFlatFileItemWriter<>();
+        writer.setName("writer");
+        writer.setResource(new FileSystemResource(file));
+        writer.setLineAggregator(new PassThroughLineAggregator<>());
+        writer.setLineSeparator("\n");
+        writer.setMeterRegistry(new SimpleMeterRegistry());
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    private String content() throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package me.june.chapter06.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+class MappedFlatFileItemReaderTest {
+
+    private static final String OFFSET_KEY = "reader.byte.offset";
+
+    @TempDir
+    File tempDir;
+
+    /**
+     * 윈도우 (7 바이트) 보다 긴 라인, 윈도우 경계에 걸친 라인, CRLF, 주석이 섞여 있어도 모든 라인을 순서대로 읽는다.
+     */
+    @Test
+    void readsLinesSpanningWindowBoundaries() throws Exception {
+        File file = write("first\nsecond-line-longer-than-window\r\n# comment\nthird\n\nlast");
+
+        MappedFlatFileItemReader<String> reader = reader(file, 7);
+        reader.open(new ExecutionContext());
+
+        assertThat(readAll(reader)).containsExactly("first", "second-line-longer-than-window", "third", "", "last");
+        reader.close();
+    }
+
+    /**
+     * 저장된 바이트 위치가 윈도우의 중간이더라도 그 위치부터 이어서 읽고, 헤더를 다시 건너뛰거나 읽은 라인을 다시 읽지 않는다.
+     */
+    @Test
+    void restartsFromMidWindowOffset() throws Exception {
+        File file = write("header\nline-01\nline-02\nline-03\nline-04\nline-05\n");
+
+        MappedFlatFileItemReader<String> reader = reader(file, 16);
+        reader.setLinesToSkip(1);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        List<String> firstRun = List.of(reader.read(), reader.read());
+        reader.update(executionContext);
+        reader.close();
+
+        long offset = executionContext.getLong(OFFSET_KEY);
+        assertThat(offset).isEqualTo("header\nline-01\nline-02\n".length());
+        assertThat(offset % 16).isNotZero();
+
+        MappedFlatFileItemReader<String> restarted = reader(file, 16);
+        restarted.setLinesToSkip(1);
+        restarted.open(executionContext);
+        List<String> secondRun = readAll(restarted);
+        restarted.update(executionContext);
+        restarted.close();
+
+        assertThat(firstRun).containsExactly("line-01", "line-02");
+        assertThat(secondRun).containsExactly("line-03", "line-04", "line-05");
+        assertThat(executionContext.getInt("reader.line.count")).isEqualTo(6); // 헤더 포함
+    }
+
+    /**
+     * [startByte, endByte) 범위만 읽는다.
+     */
+    @Test
+    void readsOnlyByteRange() throws Exception {
+        File file = write("aa\nbb\ncc\ndd\n");
+
+        MappedFlatFileItemReader<String> reader = reader(file, 4);
+        reader.setStartByte(3);
+        reader.setEndByte(9);
+        reader.open(new ExecutionContext());
+
+        assertThat(readAll(reader)).containsExactly("bb", "cc");
+        reader.close();
+    }
+
+    private File write(String content) throws Exception {
+        File file = new File(tempDir, "input.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    static MappedFlatFileItemReader<String> reader(File file, long windowSize) {
+        MappedFlatFileItemReader<String> reader = new MappedFlatFileItemReader<>();
+        reader.setName("reader");
+        reader.setResource(new FileSystemResource(file));
+        reader.setLineMapper(new PassThroughLineMapper());
+        reader.setWindowSize(windowSize);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    static List<String> readAll(MappedFlatFileItemReader<String> reader) throws Exception {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.read()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,44 @@
+package me.june.chapter06.launch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.repeat.RepeatStatus;
+
+class InMemoryBatchConfigurerTest {
+
+    private final InMemoryBatchConfigurer configurer = new InMemoryBatchConfigurer();
+
+    @AfterEach
+    void tearDown() {
+        configurer.destroy();
+    }
+
+    @Test
+    void runsJobsAgainstEmbeddedRepository() throws Exception {
+        configurer.initialize();
+        Job job = new JobBuilderFactory(configurer.getJobRepository()).get("job")
+            .start(new StepBuilderFactory(configurer.getJobRepository(), configurer.getTransactionManager()).get("step1")
+                .tasklet((contribution, chunkContext) -> RepeatStatus.FINISHED)
+                .build())
+            .build();
+
+        JobExecution first = configurer.getJobLauncher().run(job,
+            new JobParametersBuilder().addLong("run.id", 1L).toJobParameters());
+        JobExecution second = configurer.getJobLauncher().run(job,
+            new JobParametersBuilder().addLong("run.id", 2L).toJobParameters());
+
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(configurer.getJobExplorer().getJobInstanceCount("job")).isEqualTo(2);
+        assertThat(configurer.getJobExplorer().getJobExecution(second.getId()).getStepExecutions())
+            .extracting("stepName").containsExactly("step1");
+    }
+}
@@ -0,0 +1,118 @@
+package me.june.chapter06.launch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.repeat.RepeatStatus;
+
+class JobParametersIncrementerServiceTest {
+
+    private final InMemoryBatchConfigurer configurer = new InMemoryBatchConfigurer();
+    private final AtomicBoolean fail = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        configurer.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        configurer.destroy();
+    }
+
+    @Test
+    void appliesIncrementerAfterCompletedExecution() throws Exception {
+        JobParametersIncrementerService service = service();
+        Job job = job().build();
+
+        assertThat(run(service, job).getJobParameters().getLong("run.id")).isEqualTo(1L);
+        assertThat(run(service, job).getJobParameters().getLong("run.id")).isEqualTo(2L);
+    }
+
+    /**
+     * 캐시에 마지막 파라미터가 있더라도, 그 실행이 실패했다면 같은 파라미터로 재시작한다.
+     */
+    @Test
+    void restartsFailedExecutionWithSameParameters() throws Exception {
+        JobParametersIncrementerService service = service();
+        Job job = job().build();
+        JobParameters request = new JobParametersBuilder().addString("name", "june", false).toJobParameters();
+
+        fail.set(true);
+        JobExecution failed = service.run(configurer.getJobLauncher(), job, request);
+        fail.set(false);
+        JobExecution restarted = service.run(configurer.getJobLauncher(), job, request);
+        JobExecution next = service.run(configurer.getJobLauncher(), job, request);
+
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(failed.getJobInstance().getInstanceId());
+        assertThat(restarted.getJobParameters().getLong("run.id")).isEqualTo(1L);
+        assertThat(restarted.getJobParameters().getString("name")).isEqualTo("june");
+        assertThat(next.getJobParameters().getLong("run.id")).isEqualTo(2L);
+    }
+
+    /**
+     * 캐시가 비어있다면 JobRepository 에서 마지막 실행을 조회해 같은 규칙을 적용한다. (애플리케이션 재시작 후)
+     */
+    @Test
+    void restartsFailedExecutionFoundInRepository() throws Exception {
+        Job job = job().build();
+
+        fail.set(true);
+        JobExecution failed = run(service(), job);
+        fail.set(false);
+        JobExecution restarted = run(service(), job);
+
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(failed.getJobInstance().getInstanceId());
+    }
+
+    @Test
+    void appliesIncrementerAfterFailureWhenJobIsNotRestartable() throws Exception {
+        JobParametersIncrementerService service = service();
+        Job job = job().preventRestart().build();
+
+        fail.set(true);
+        JobExecution failed = run(service, job);
+        fail.set(false);
+        JobExecution next = run(service, job);
+
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(next.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(next.getJobParameters().getLong("run.id")).isEqualTo(2L);
+    }
+
+    private JobParametersIncrementerService service() {
+        return new JobParametersIncrementerService(configurer.getJobExplorer());
+    }
+
+    private JobExecution run(JobParametersIncrementerService service, Job job) throws Exception {
+        return service.run(configurer.getJobLauncher(), job, new JobParameters());
+    }
+
+    private SimpleJobBuilder job() {
+        return new JobBuilderFactory(configurer.getJobRepository()).get("job")
+            .incrementer(new RunIdIncrementer())
+            .start(new StepBuilderFactory(configurer.getJobRepository(), configurer.getTransactionManager()).get("step1")
+                .tasklet((contribution, chunkContext) -> {
+                    if (fail.get()) {
+                        throw new IllegalStateException("fail");
+                    }
+                    return RepeatStatus.FINISHED;
+                })
+                .build());
+    }
+}
@@ -0,0 +1,58 @@
+package me.june.chapter06.norun;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+class NoRunJobTest {
+
+    private static final String INITIALIZE_SCHEMA = "spring.batch.jdbc.initialize-schema";
+
+    @Test
+    void disablesSchemaInitializationForInMemoryRepository() {
+        StandardEnvironment environment = environment("--batch.repository.in-memory=true");
+
+        NoRunJob.disableSchemaInitializationWhenInMemory(context(environment));
+
+        assertThat(environment.getProperty(INITIALIZE_SCHEMA)).isEqualTo("never");
+    }
+
+    @Test
+    void keepsSchemaInitializationForJdbcRepository() {
+        StandardEnvironment environment = environment("--batch.repository.in-memory=false");
+
+        NoRunJob.disableSchemaInitializationWhenInMemory(context(environment));
+
+        assertThat(environment.getProperty(INITIALIZE_SCHEMA)).isEqualTo("always");
+    }
+
+    @Test
+    void commandLineValueWins() {
+        StandardEnvironment environment = environment("--batch.repository.in-memory=true", "--" + INITIALIZE_SCHEMA + "=embedded");
+
+        NoRunJob.disableSchemaInitializationWhenInMemory(context(environment));
+
+        assertThat(environment.getProperty(INITIALIZE_SCHEMA)).isEqualTo("embedded");
+    }
+
+    /**
+     * 커맨드라인 인자와 application.yaml (initialize-schema: always) 이 있는 환경
+     */
+    private StandardEnvironment environment(String... args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("application.yaml", Map.of(INITIALIZE_SCHEMA, "always")));
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        return environment;
+    }
+
+    private GenericApplicationContext context(StandardEnvironment environment) {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.setEnvironment(environment);
+        return context;
+    }
+}
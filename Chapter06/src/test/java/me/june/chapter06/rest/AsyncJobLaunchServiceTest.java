@@ -0,0 +1,83 @@
+package me.june.chapter06.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import me.june.chapter06.launch.InMemoryBatchConfigurer;
+import me.june.chapter06.launch.JobParametersIncrementerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+class AsyncJobLaunchServiceTest {
+
+    private final InMemoryBatchConfigurer configurer = new InMemoryBatchConfigurer();
+    private Job job;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        configurer.initialize();
+        job = new JobBuilderFactory(configurer.getJobRepository()).get("job")
+            .incrementer(new RunIdIncrementer())
+            .start(new StepBuilderFactory(configurer.getJobRepository(), configurer.getTransactionManager()).get("step1")
+                .tasklet((contribution, chunkContext) -> RepeatStatus.FINISHED)
+                .build())
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        configurer.destroy();
+    }
+
+    /**
+     * 같은 요청 파라미터로 여러번 실행해도 incrementer 가 적용되어 매번 새 JobInstance 로 실행된다.
+     */
+    @Test
+    void appliesIncrementerOnEveryLaunch() throws Exception {
+        AsyncJobLaunchService service = service(new SyncTaskExecutor(), 1);
+        JobParameters requestParameters = new JobParametersBuilder().addString("name", "june").toJobParameters();
+
+        JobExecution first = service.tryLaunch(job, requestParameters).orElseThrow();
+        JobExecution second = service.tryLaunch(job, requestParameters).orElseThrow();
+
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(first.getJobParameters().getLong("run.id")).isEqualTo(1L);
+        assertThat(second.getJobParameters().getLong("run.id")).isEqualTo(2L);
+        assertThat(second.getJobParameters().getString("name")).isEqualTo("june");
+    }
+
+    @Test
+    void rejectsLaunchWhenPermitsAreExhausted() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncJobLaunchService service = service(queued::add, 1);
+
+        Optional<JobExecution> first = service.tryLaunch(job, new JobParameters());
+        assertThat(first).isPresent();
+        assertThat(service.tryLaunch(job, new JobParameters())).isEmpty();
+
+        queued.remove(0).run();
+        assertThat(service.getJobExecution(first.get().getId()))
+            .hasValueSatisfying(execution -> assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED));
+        assertThat(service.tryLaunch(job, new JobParameters())).isPresent();
+    }
+
+    private AsyncJobLaunchService service(TaskExecutor taskExecutor, int maxConcurrentLaunches) throws Exception {
+        return new AsyncJobLaunchService(configurer.getJobRepository(), configurer.getJobExplorer(),
+            new JobParametersIncrementerService(configurer.getJobExplorer()), taskExecutor, maxConcurrentLaunches, 1_000);
+    }
+}
@@ -1,7 +1,9 @@
 package me.june.chapter08.classifier;
 
 import me.june.chapter08.domain.Customer;
+import me.june.chapter08.itemprocessor.MethodHandleItemProcessorAdapter;
 import me.june.chapter08.itemprocessor.UpperCaseNameService;
+import me.june.chapter08.script.CompiledScriptItemProcessor;
 import me.june.chapter08.validation.UniqueLastNameValidator;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
@@ -10,11 +12,9 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.adapter.ItemProcessorAdapter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.support.ClassifierCompositeItemProcessor;
-import org.springframework.batch.item.support.ScriptItemProcessor;
 import org.springframework.batch.item.validator.ValidatingItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -72,9 +72,9 @@ public class ClassifierJob {
     }
 
     @Bean
-    public ItemProcessorAdapter<Customer, Customer> upperCaseItemProcessor(
+    public MethodHandleItemProcessorAdapter<Customer, Customer> upperCaseItemProcessor(
         UpperCaseNameService service) {
-        ItemProcessorAdapter<Customer, Customer> adapter = new ItemProcessorAdapter<>();
+        MethodHandleItemProcessorAdapter<Customer, Customer> adapter = new MethodHandleItemProcessorAdapter<>();
         adapter.setTargetObject(service);
         adapter.setTargetMethod("upperCase");
         return adapter;
@@ -82,10 +82,10 @@ public class ClassifierJob {
 
     @StepScope
     @Bean
-    public ScriptItemProcessor<Customer, Customer> scriptItemProcessor(
+    public CompiledScriptItemProcessor<Customer, Customer> scriptItemProcessor(
         @Value("#{jobParameters['script']}") Resource script
     ) {
-        ScriptItemProcessor<Customer, Customer> processor = new ScriptItemProcessor<>();
+        CompiledScriptItemProcessor<Customer, Customer> processor = new CompiledScriptItemProcessor<>();
         processor.setScript(script);
         return processor;
     }
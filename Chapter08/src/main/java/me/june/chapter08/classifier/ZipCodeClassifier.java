@@ -4,23 +4,71 @@ import me.june.chapter08.domain.Customer;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.classify.Classifier;
 
+/**
+ * 우편번호의 홀짝으로 ItemProcessor 를 선택한다.
+ * -> 숫자의 홀짝은 마지막 자리로 결정되므로 Integer.parseInt 로 값을 만들지 않고 모든 문자가 숫자인지만 확인한 뒤 마지막 숫자를 사용한다.
+ * -> 마지막 숫자 (0 ~ 9) 별 ItemProcessor 를 생성 시점에 테이블로 만들어두고, classify 에서는 테이블만 조회한다. (객체를 생성하지 않는다.)
+ * -> 앞뒤 공백과 부호 (+, -) 는 허용하고, 그 외에 숫자가 아닌 문자가 있다면 invalidItemProcessor 를 반환한다. 지정되지 않았다면 예외를 던진다.
+ */
 public class ZipCodeClassifier implements Classifier<Customer, ItemProcessor<Customer, Customer>> {
 
-    private ItemProcessor<Customer, Customer> oddItemProcessor;
-    private ItemProcessor<Customer, Customer> evenItemProcessor;
+    private final ItemProcessor<Customer, Customer>[] processorsByLastDigit;
+    private ItemProcessor<Customer, Customer> invalidItemProcessor;
 
+    @SuppressWarnings("unchecked")
     public ZipCodeClassifier(
         ItemProcessor<Customer, Customer> oddItemProcessor,
         ItemProcessor<Customer, Customer> evenItemProcessor) {
-        this.oddItemProcessor = oddItemProcessor;
-        this.evenItemProcessor = evenItemProcessor;
+        this.processorsByLastDigit = new ItemProcessor[10];
+        for (int digit = 0; digit < 10; digit++) {
+            processorsByLastDigit[digit] = digit % 2 == 0 ? evenItemProcessor : oddItemProcessor;
+        }
+    }
+
+    public void setInvalidItemProcessor(ItemProcessor<Customer, Customer> invalidItemProcessor) {
+        this.invalidItemProcessor = invalidItemProcessor;
     }
 
     @Override
     public ItemProcessor<Customer, Customer> classify(Customer customer) {
-        if (Integer.parseInt(customer.getZip()) % 2 == 0) {
-            return evenItemProcessor;
+        String zip = customer.getZip();
+        int digit = lastDigit(zip);
+        if (digit >= 0) {
+            return processorsByLastDigit[digit];
+        }
+        if (invalidItemProcessor != null) {
+            return invalidItemProcessor;
+        }
+        throw new IllegalArgumentException("Zip code is not numeric: " + zip);
+    }
+
+    /**
+     * @return 모든 문자가 숫자라면 마지막 숫자, 아니라면 -1
+     */
+    static int lastDigit(String zip) {
+        if (zip == null) {
+            return -1;
+        }
+        int start = 0;
+        int end = zip.length();
+        while (start < end && Character.isWhitespace(zip.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(zip.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end && (zip.charAt(start) == '+' || zip.charAt(start) == '-')) {
+            start++;
+        }
+        if (start == end) {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            char c = zip.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
         }
-        return oddItemProcessor;
+        return zip.charAt(end - 1) - '0';
     }
 }
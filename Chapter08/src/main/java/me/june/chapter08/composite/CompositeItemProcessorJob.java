@@ -2,6 +2,7 @@ package me.june.chapter08.composite;
 
 import java.util.List;
 import me.june.chapter08.domain.Customer;
+import me.june.chapter08.itemprocessor.MethodHandleItemProcessorAdapter;
 import me.june.chapter08.itemprocessor.UpperCaseNameService;
 import me.june.chapter08.validation.UniqueLastNameValidator;
 import org.springframework.batch.core.Job;
@@ -11,7 +12,6 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.adapter.ItemProcessorAdapter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.support.CompositeItemProcessor;
@@ -72,9 +72,9 @@ public class CompositeItemProcessorJob {
     }
 
     @Bean
-    public ItemProcessorAdapter<Customer, Customer> upperCaseItemProcessor(
+    public MethodHandleItemProcessorAdapter<Customer, Customer> upperCaseItemProcessor(
         UpperCaseNameService service) {
-        ItemProcessorAdapter<Customer, Customer> adapter = new ItemProcessorAdapter<>();
+        MethodHandleItemProcessorAdapter<Customer, Customer> adapter = new MethodHandleItemProcessorAdapter<>();
         adapter.setTargetObject(service);
         adapter.setTargetMethod("upperCase");
         return adapter;
@@ -8,7 +8,6 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.adapter.ItemProcessorAdapter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,8 +50,8 @@ public class ItemProcessorAdapterJob {
     }
 
     @Bean
-    public ItemProcessorAdapter<Customer, Customer> itemProcessor(UpperCaseNameService service) {
-        ItemProcessorAdapter<Customer, Customer> adapter = new ItemProcessorAdapter<>();
+    public MethodHandleItemProcessorAdapter<Customer, Customer> itemProcessor(UpperCaseNameService service) {
+        MethodHandleItemProcessorAdapter<Customer, Customer> adapter = new MethodHandleItemProcessorAdapter<>();
         adapter.setTargetObject(service);
         adapter.setTargetMethod("upperCase");
         return adapter;
@@ -0,0 +1,64 @@
+package me.june.chapter08.itemprocessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * 대상 메서드를 MethodHandle 로 한번만 바인딩해서 호출하는 ItemProcessorAdapter 대체 구현체
+ * -> ItemProcessorAdapter 는 아이템마다 MethodInvoker 를 만들어 메서드를 다시 찾고 (prepare), 리플렉션으로 호출한다.
+ * -> 이 어댑터는 afterPropertiesSet 에서 인자가 하나인 public 메서드를 찾아 targetObject 에 바인딩하고,
+ *    아이템마다 바인딩된 MethodHandle 만 호출한다.
+ */
+public class MethodHandleItemProcessorAdapter<I, O> implements ItemProcessor<I, O>, InitializingBean {
+
+    private Object targetObject;
+    private String targetMethod;
+
+    private MethodHandle handle;
+
+    public void setTargetObject(Object targetObject) {
+        this.targetObject = targetObject;
+    }
+
+    public void setTargetMethod(String targetMethod) {
+        this.targetMethod = targetMethod;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(targetObject, "targetObject must be set");
+        Assert.hasText(targetMethod, "targetMethod must be set");
+
+        Method method = null;
+        for (Method candidate : targetObject.getClass().getMethods()) {
+            if (candidate.getName().equals(targetMethod) && candidate.getParameterCount() == 1
+                && !Modifier.isStatic(candidate.getModifiers())) {
+                Assert.state(method == null, () -> "Ambiguous target method " + targetMethod + " on " + targetObject.getClass());
+                method = candidate;
+            }
+        }
+        Assert.state(method != null, () -> "No public method " + targetMethod + " with one argument on " + targetObject.getClass());
+
+        handle = MethodHandles.publicLookup().unreflect(method)
+            .bindTo(targetObject)
+            .asType(MethodType.methodType(Object.class, Object.class));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public O process(I item) throws Exception {
+        try {
+            return (O) handle.invokeExact((Object) item);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package me.june.chapter08.repository;
+
+import javax.sql.DataSource;
+import org.springframework.batch.core.configuration.annotation.DefaultBatchConfigurer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * ExecutionContext 를 BinaryExecutionContextSerializer 로 저장하는 BatchConfigurer
+ * -> ValidationJob 처럼 ItemStream 상태를 커밋마다 저장하는 스텝의 컨텍스트 직렬화 비용과 크기를 줄인다.
+ * -> 읽기는 항상 BinaryExecutionContextSerializer 를 거치므로 batch.repository.binary-context=false 로 꺼도
+ *    이미 바이너리로 저장된 컨텍스트를 읽을 수 있다. (기존 JSON 컨텍스트도 읽을 수 있다.)
+ */
+@Component
+public class BinaryContextBatchConfigurer extends DefaultBatchConfigurer {
+
+    private final DataSource dataSource;
+
+    @Value("${batch.repository.binary-context:true}")
+    private boolean binaryContext;
+
+    /**
+     * 직렬화된 ExecutionContext 가 이 크기 (바이트) 를 넘으면 경고 로그를 남긴다.
+     */
+    @Value("${batch.repository.context-warn-threshold:65536}")
+    private int contextWarnThreshold;
+
+    public BinaryContextBatchConfigurer(DataSource dataSource) {
+        super(dataSource);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected JobRepository createJobRepository() throws Exception {
+        JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setTransactionManager(getTransactionManager());
+        factoryBean.setSerializer(executionContextSerializer());
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    @Override
+    protected JobExplorer createJobExplorer() throws Exception {
+        JobExplorerFactoryBean factoryBean = new JobExplorerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setSerializer(executionContextSerializer());
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    private BinaryExecutionContextSerializer executionContextSerializer() {
+        BinaryExecutionContextSerializer serializer =
+            new BinaryExecutionContextSerializer(new Jackson2ExecutionContextStringSerializer());
+        serializer.setWriteBinary(binaryContext);
+        serializer.setWarnThreshold(contextWarnThreshold);
+        return serializer;
+    }
+}
@@ -0,0 +1,110 @@
+package me.june.chapter08.script;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 스크립트를 한번만 컴파일해서 사용하는 ScriptItemProcessor 대체 구현체
+ * -> ScriptItemProcessor 는 StandardScriptEvaluator 를 통해 아이템마다 ScriptEngine 을 조회 (생성) 하고 스크립트를 다시 해석한다.
+ * -> 이 프로세서는 빈이 생성될 때 (@StepScope 라면 스텝마다) 스크립트를 읽어 Compilable 로 컴파일하고, 아이템마다 컴파일된 스크립트만 실행한다.
+ * -> 아이템은 itemBindingVariableName (기본값 item) 으로 바인딩되며, 스크립트의 마지막 값이 처리 결과가 된다. (ScriptItemProcessor 와 동일)
+ *
+ * 멀티 스레드 스텝 (TaskExecutor) 에서도 사용할 수 있다.
+ * -> 엔진이 THREADING 파라미터로 스레드 안전성을 보장한다면 컴파일된 스크립트를 공유하고, Bindings 만 스레드마다 만들어 재사용한다.
+ * -> 보장하지 않는다면 (Nashorn 은 null) 스레드마다 엔진을 만들어 한번씩 컴파일한다.
+ * -> Bindings 를 재사용하므로 스크립트에서 전역 변수에 값을 쓰면 같은 스레드의 다음 아이템에서 보인다.
+ */
+public class CompiledScriptItemProcessor<I, O> implements ItemProcessor<I, O>, InitializingBean {
+
+    private static final String DEFAULT_ITEM_BINDING_VARIABLE_NAME = "item";
+
+    private Resource script;
+    private String language;
+    private String itemBindingVariableName = DEFAULT_ITEM_BINDING_VARIABLE_NAME;
+
+    private String scriptSource;
+    private CompiledScript sharedScript;
+    private ThreadLocal<CompiledScript> threadScripts;
+    private ThreadLocal<Bindings> threadBindings;
+
+    public void setScript(Resource script) {
+        this.script = script;
+    }
+
+    /**
+     * 지정하지 않으면 스크립트 파일의 확장자로 엔진을 찾는다.
+     */
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public void setItemBindingVariableName(String itemBindingVariableName) {
+        this.itemBindingVariableName = itemBindingVariableName;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(script, "Script resource must be set");
+        Assert.hasText(itemBindingVariableName, "itemBindingVariableName must not be empty");
+
+        try (Reader reader = new InputStreamReader(script.getInputStream(), StandardCharsets.UTF_8)) {
+            scriptSource = FileCopyUtils.copyToString(reader);
+        }
+
+        ScriptEngine engine = createEngine();
+        CompiledScript compiled = compile(engine);
+        if (engine.getFactory().getParameter("THREADING") != null) {
+            sharedScript = compiled;
+            threadBindings = ThreadLocal.withInitial(engine::createBindings);
+        } else {
+            threadScripts = ThreadLocal.withInitial(() -> compile(createEngine()));
+            threadBindings = ThreadLocal.withInitial(() -> threadScripts.get().getEngine().createBindings());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public O process(I item) throws Exception {
+        CompiledScript compiled = sharedScript != null ? sharedScript : threadScripts.get();
+        Bindings bindings = threadBindings.get();
+        bindings.put(itemBindingVariableName, item);
+        try {
+            return (O) compiled.eval(bindings);
+        } finally {
+            bindings.remove(itemBindingVariableName);
+        }
+    }
+
+    private ScriptEngine createEngine() {
+        ScriptEngineManager manager = new ScriptEngineManager();
+        ScriptEngine engine = StringUtils.hasText(language)
+            ? manager.getEngineByName(language)
+            : manager.getEngineByExtension(StringUtils.getFilenameExtension(script.getFilename()));
+        Assert.state(engine != null, () -> "No script engine found for " + script.getDescription());
+        Assert.state(engine instanceof Compilable,
+            () -> "Script engine " + engine.getFactory().getEngineName() + " does not support compilation");
+        return engine;
+    }
+
+    private CompiledScript compile(ScriptEngine engine) {
+        try {
+            return ((Compilable) engine).compile(scriptSource);
+        } catch (ScriptException e) {
+            throw new IllegalStateException("Failed to compile " + script.getDescription(), e);
+        }
+    }
+}
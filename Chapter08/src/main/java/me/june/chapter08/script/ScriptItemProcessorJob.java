@@ -10,7 +10,6 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.support.ScriptItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
@@ -52,10 +51,10 @@ public class ScriptItemProcessorJob {
 
     @StepScope
     @Bean
-    public ScriptItemProcessor<Customer, Customer> itemProcessor(
+    public CompiledScriptItemProcessor<Customer, Customer> itemProcessor(
         @Value("#{jobParameters['script']}") Resource script
     ) {
-        ScriptItemProcessor<Customer, Customer> processor = new ScriptItemProcessor<>();
+        CompiledScriptItemProcessor<Customer, Customer> processor = new CompiledScriptItemProcessor<>();
         processor.setScript(script);
         return processor;
     }
@@ -0,0 +1,63 @@
+package me.june.chapter08.validation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 값을 저장하지 않고 비트만 기록하는 Bloom filter
+ * -> expectedInsertions 개를 넣었을 때 없는 값을 있다고 판단할 확률이 falsePositiveRate 가 되도록 비트 수와 해시 수를 정한다.
+ *    (5 천만개, 1% 라면 약 57MB)
+ * -> 있는 값을 없다고 판단하는 경우는 없다.
+ * -> 해시는 64 비트 해시 하나를 두개로 나눠 h1 + i * h2 로 k 개를 만든다. (Kirsch-Mitzenmacher)
+ *
+ * 스레드에 안전하지 않다.
+ */
+public class BloomFilterValueSet implements UniqueValueSet {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilterValueSet(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and falsePositiveRate must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64)];
+        this.bitCount = (long) bits.length * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        long hash = Hashes.hash64(value.getBytes(StandardCharsets.UTF_8));
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(String value) {
+        long hash = Hashes.hash64(value.getBytes(StandardCharsets.UTF_8));
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    @Override
+    public boolean isExact() {
+        return false;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+}
@@ -0,0 +1,28 @@
+package me.june.chapter08.validation;
+
+/**
+ * UTF-8 바이트 배열용 64 비트 해시 (FNV-1a 후 MurmurHash3 fmix64 로 비트를 섞는다.)
+ */
+final class Hashes {
+
+    private Hashes() {
+    }
+
+    static long hash64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
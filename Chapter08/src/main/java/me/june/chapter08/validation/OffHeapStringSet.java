@@ -0,0 +1,168 @@
+package me.june.chapter08.validation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 문자열을 direct ByteBuffer 에 저장하는 open addressing (linear probing) 해시 집합
+ * -> HashSet<String> 은 값마다 String, byte[], HashMap.Node 객체를 만들어 힙과 GC 부담이 크다.
+ * -> 값은 [길이(int) + UTF-8 바이트] 형태로 CHUNK_SIZE 크기의 버퍼에 이어 붙이고 (8 바이트 정렬),
+ *    테이블 슬롯 (long) 에는 [해시 상위 32 비트 | 값의 위치 / 8 + 1] 을 저장한다. (0 은 빈 슬롯)
+ * -> 슬롯에 해시를 같이 저장하므로 테이블을 키울 때 값을 다시 읽지 않는다.
+ * -> 첫 청크는 INITIAL_CHUNK_SIZE 로 시작해 CHUNK_SIZE 까지 두배씩 키운다. (값이 적을때 64MB 를 미리 할당하지 않는다.)
+ *
+ * 스레드에 안전하지 않다.
+ */
+public class OffHeapStringSet implements UniqueValueSet {
+
+    private static final int CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int INITIAL_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_SLOTS = 1 << 27; // 테이블 버퍼 1GB
+    private static final long MAX_OFFSET = (1L << 32) * 8 - 8;
+
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+
+    public OffHeapStringSet(int expectedSize) {
+        int slots = Integer.highestOneBit(Math.max(16, Math.min(MAX_SLOTS, expectedSize) * 2 - 1)) << 1;
+        this.table = ByteBuffer.allocateDirect(Math.min(slots, MAX_SLOTS) * Long.BYTES);
+        this.mask = table.capacity() / Long.BYTES - 1;
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return table.getLong(findSlot(bytes, tag(bytes)) * Long.BYTES) != 0;
+    }
+
+    @Override
+    public void add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int tag = tag(bytes);
+        int slot = findSlot(bytes, tag);
+        if (table.getLong(slot * Long.BYTES) != 0) {
+            return;
+        }
+
+        long reference = append(bytes) / 8 + 1;
+        table.putLong(slot * Long.BYTES, ((long) tag << 32) | reference);
+        if (++size * 2 > mask + 1) {
+            grow();
+        }
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 값이 있는 슬롯, 없다면 값을 넣을 빈 슬롯을 찾는다.
+     */
+    private int findSlot(byte[] bytes, int tag) {
+        int slot = tag & mask;
+        while (true) {
+            long entry = table.getLong(slot * Long.BYTES);
+            if (entry == 0 || ((int) (entry >>> 32) == tag && matches(entry, bytes))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean matches(long entry, byte[] bytes) {
+        long offset = ((entry & 0xFFFFFFFFL) - 1) * 8;
+        ByteBuffer chunk = chunks.get((int) (offset / CHUNK_SIZE));
+        int position = (int) (offset % CHUNK_SIZE);
+        if (chunk.getInt(position) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + Integer.BYTES + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 저장한 값의 위치 (모든 청크 기준)
+     */
+    private long append(byte[] bytes) {
+        int length = (Integer.BYTES + bytes.length + 7) & ~7;
+        if (length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Value is too large to store: " + bytes.length + " bytes");
+        }
+        if (current == null) {
+            current = ByteBuffer.allocateDirect(Math.max(INITIAL_CHUNK_SIZE, length));
+            chunks.add(current);
+        } else if (current.remaining() < length) {
+            if (current.capacity() < CHUNK_SIZE && current.position() + length <= CHUNK_SIZE) {
+                growCurrentChunk(current.position() + length);
+            } else {
+                current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+                chunks.add(current);
+            }
+        }
+
+        long offset = (long) (chunks.size() - 1) * CHUNK_SIZE + current.position();
+        if (offset > MAX_OFFSET) {
+            throw new IllegalStateException("OffHeapStringSet is full");
+        }
+        current.putInt(bytes.length);
+        current.put(bytes);
+        current.position(current.position() + (length - Integer.BYTES - bytes.length));
+        return offset;
+    }
+
+    /**
+     * 마지막 청크를 더 큰 버퍼로 옮긴다. (값의 위치는 청크 안에서의 위치이므로 바뀌지 않는다.)
+     */
+    private void growCurrentChunk(int required) {
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(CHUNK_SIZE, Math.max(current.capacity() * 2L, required)));
+        current.flip();
+        grown.put(current);
+        chunks.set(chunks.size() - 1, grown);
+        current = grown;
+    }
+
+    private void grow() {
+        int slots = mask + 1;
+        if (slots >= MAX_SLOTS) {
+            if (size + 1 >= slots) {
+                throw new IllegalStateException("OffHeapStringSet is full");
+            }
+            return; // 최대 크기에서는 load factor 가 0.5 를 넘더라도 그대로 사용한다.
+        }
+
+        ByteBuffer grown = ByteBuffer.allocateDirect(slots * 2 * Long.BYTES);
+        int grownMask = slots * 2 - 1;
+        for (int i = 0; i < slots; i++) {
+            long entry = table.getLong(i * Long.BYTES);
+            if (entry == 0) {
+                continue;
+            }
+            int slot = (int) (entry >>> 32) & grownMask;
+            while (grown.getLong(slot * Long.BYTES) != 0) {
+                slot = (slot + 1) & grownMask;
+            }
+            grown.putLong(slot * Long.BYTES, entry);
+        }
+        table = grown;
+        mask = grownMask;
+    }
+
+    private static int tag(byte[] bytes) {
+        return (int) (Hashes.hash64(bytes) >>> 32);
+    }
+}
@@ -1,50 +1,191 @@
 package me.june.chapter08.validation;
 
-import java.util.HashSet;
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import me.june.chapter08.domain.Customer;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamSupport;
 import org.springframework.batch.item.validator.ValidationException;
 import org.springframework.batch.item.validator.Validator;
 
 /**
  * ItemStreamSupport 클래스를 통해 ItemStream 인터페이스를 구현 lastNames 상태를 ExecutionContext 를 통해 관리한다.
+ *
+ * 이전에는 HashSet 에 모든 lastName 을 보관하고, 커밋마다 복사해서 ExecutionContext 에 통째로 저장했다.
+ * -> 값이 많아지면 힙이 부족해지고, 커밋마다 전체 집합을 직렬화하므로 커밋이 점점 느려진다.
+ * -> lastName 은 UniqueValueSet (기본값 OffHeapStringSet) 에 보관하고,
+ *    커밋마다 새로 추가된 값만 ValueJournal 파일에 쓴 뒤 ExecutionContext 에는 파일의 위치만 저장한다.
+ *
+ * BloomFilterValueSet 처럼 정확하지 않은 집합을 사용한다면 "있을 수도 있다" 고 판단한 값은 다음 순서로 확인한다.
+ * -> 아직 커밋되지 않은 값 (pending) 은 메모리에서 직접 확인한다.
+ * -> 커밋된 값은 duplicateConfirmer 로 확인한다. (스텝의 라이터가 값을 저장하는 테이블을 인덱스로 조회해야 한다.)
+ * -> 저널은 순서대로만 읽을 수 있으므로 확인에 사용하지 않는다. (값마다 파일 전체를 읽게 된다.)
+ *    정확하지 않은 집합에는 duplicateConfirmer 가 반드시 필요하다.
+ *
+ * 저널 파일은 잡 인스턴스마다 따로 사용해야 하므로 StepExecutionListener 로도 등록해야 한다.
+ * -> journalPath 를 지정하지 않으면 임시 디렉토리의 [name].lastNames.[잡 인스턴스 ID].journal 파일을 사용하고,
+ *    스텝이 COMPLETED 로 끝나면 삭제한다. (재시작할 일이 없다.)
  */
-public class UniqueLastNameValidator extends ItemStreamSupport implements Validator<Customer> {
+public class UniqueLastNameValidator extends ItemStreamSupport implements Validator<Customer>, StepExecutionListener {
 
-    private Set<String> lastNames = new HashSet<>();
+    private static final String LAST_NAMES_KEY = "lastNames";
+    private static final String JOURNAL_POSITION_KEY = "lastNames.journal.position";
 
+    private Supplier<UniqueValueSet> valueSetFactory = () -> new OffHeapStringSet(1024);
+    private Predicate<String> duplicateConfirmer;
+    private Path journalPath;
+
+    private Long jobInstanceId;
+    private boolean completed;
+
+    private UniqueValueSet lastNames;
+    private final Set<String> pending = new LinkedHashSet<>();
+    private ValueJournal journal;
+    private Path openedJournalPath;
+
+    public void setValueSetFactory(Supplier<UniqueValueSet> valueSetFactory) {
+        this.valueSetFactory = valueSetFactory;
+    }
+
+    public void setDuplicateConfirmer(Predicate<String> duplicateConfirmer) {
+        this.duplicateConfirmer = duplicateConfirmer;
+    }
+
+    /**
+     * 지정하지 않으면 임시 디렉토리의 [name].lastNames.[잡 인스턴스 ID].journal 파일을 사용한다.
+     * -> 지정한 파일은 스텝이 끝나도 삭제하지 않는다.
+     */
+    public void setJournalPath(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * 스텝에 ItemStream 으로 등록되지 않아 open() 이 호출되지 않았다면 저널 없이 메모리에서만 검사한다.
+     */
     @Override
     public void validate(Customer value) throws ValidationException {
-        if (lastNames.contains(value.getLastName())) {
-            throw new ValidationException("Duplicate last name was found : " + value.getLastName());
+        if (lastNames == null) {
+            lastNames = newValueSet();
+        }
+
+        String lastName = value.getLastName();
+        if (pending.contains(lastName) || (lastNames.mightContain(lastName) && isDuplicate(lastName))) {
+            throw new ValidationException("Duplicate last name was found : " + lastName);
+        }
+        lastNames.add(lastName);
+        if (journal != null) {
+            pending.add(lastName);
+        }
+    }
+
+    private boolean isDuplicate(String lastName) {
+        return lastNames.isExact() || duplicateConfirmer.test(lastName);
+    }
+
+    private UniqueValueSet newValueSet() {
+        UniqueValueSet valueSet = valueSetFactory.get();
+        if (!valueSet.isExact() && duplicateConfirmer == null) {
+            throw new IllegalStateException("A duplicateConfirmer is required for an approximate value set");
         }
-        lastNames.add(value.getLastName());
+        return valueSet;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.jobInstanceId = stepExecution.getJobExecution().getJobInstance().getInstanceId();
+        this.completed = false;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        this.completed = stepExecution.getStatus() == BatchStatus.COMPLETED;
+        return null;
     }
 
     /**
-     * ExecutionContext 를 통해 기존의 LastNames 를 가져온다.
+     * ExecutionContext 에 저장된 위치까지 저널을 읽어 기존의 LastNames 를 복원한다.
+     * -> 이전 방식으로 저장된 lastNames 가 있다면 함께 복원하고, 다음 커밋에서 저널로 옮긴다.
      */
     @Override
     public void open(ExecutionContext executionContext) {
-        String lastNames = getExecutionContextKey("lastNames");
-        if (executionContext.containsKey(lastNames)) {
-            this.lastNames = (Set<String>) executionContext.get(lastNames);
+        lastNames = newValueSet();
+        pending.clear();
+
+        Path path = journalPath();
+        try {
+            journal = new ValueJournal(path);
+            journal.restore(executionContext.getLong(getExecutionContextKey(JOURNAL_POSITION_KEY), 0L), lastNames::add);
+            openedJournalPath = path;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to restore last names from " + path, e);
+        }
+
+        String legacyKey = getExecutionContextKey(LAST_NAMES_KEY);
+        if (executionContext.containsKey(legacyKey)) {
+            for (String lastName : (Set<String>) executionContext.get(legacyKey)) {
+                lastNames.add(lastName);
+                pending.add(lastName);
+            }
         }
     }
 
+    private Path journalPath() {
+        if (journalPath != null) {
+            return journalPath;
+        }
+        if (jobInstanceId == null) {
+            throw new ItemStreamException("journalPath is not set and the validator is not registered as a StepExecutionListener");
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+            getExecutionContextKey(LAST_NAMES_KEY) + "." + jobInstanceId + ".journal");
+    }
+
     /**
-     * ExecutionContext 를 통해 LastNames 를 저장한다.
+     * 마지막 커밋 이후 추가된 LastNames 만 저널에 쓰고, 저널의 위치를 ExecutionContext 에 저장한다.
      */
     @Override
     public void update(ExecutionContext executionContext) {
-        Iterator<String> iter = lastNames.iterator();
-        Set<String> copiedLastNames = new HashSet<>();
-        while (iter.hasNext()) {
-            copiedLastNames.add(iter.next());
+        if (journal == null) {
+            return;
+        }
+        try {
+            long position = journal.append(pending);
+            pending.clear();
+            executionContext.putLong(getExecutionContextKey(JOURNAL_POSITION_KEY), position);
+            executionContext.remove(getExecutionContextKey(LAST_NAMES_KEY));
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to write last names to the journal", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+            if (completed && journalPath == null) {
+                Files.deleteIfExists(openedJournalPath);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close the last name journal", e);
+        } finally {
+            journal = null;
+            lastNames = null;
+            openedJournalPath = null;
+            jobInstanceId = null;
         }
-        executionContext.put(getExecutionContextKey("lastNames"), copiedLastNames);
     }
 }
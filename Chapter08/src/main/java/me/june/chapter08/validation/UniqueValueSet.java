@@ -0,0 +1,21 @@
+package me.june.chapter08.validation;
+
+/**
+ * 중복 검사에 사용하는 값 집합
+ * -> OffHeapStringSet : 값을 힙 바깥에 저장하는 정확한 집합
+ * -> BloomFilterValueSet : 값을 저장하지 않는 근사 집합 (없는 값도 있다고 판단할 수 있다.)
+ */
+public interface UniqueValueSet {
+
+    /**
+     * @return 값이 없다면 false, 있거나 있을 수도 있다면 true
+     */
+    boolean mightContain(String value);
+
+    void add(String value);
+
+    /**
+     * mightContain 이 true 를 반환하면 실제로 값이 있는지 여부
+     */
+    boolean isExact();
+}
@@ -1,15 +1,27 @@
 package me.june.chapter08.validation;
 
+import java.util.List;
+import javax.sql.DataSource;
 import me.june.chapter08.domain.Customer;
+import me.june.chapter08.repository.BinaryContextBatchConfigurer;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.item.validator.BeanValidatingItemProcessor;
 import org.springframework.batch.item.validator.ValidatingItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,10 +29,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
+/**
+ * 커밋마다 validator 의 상태를 ExecutionContext 에 저장하므로 BinaryContextBatchConfigurer 로 컨텍스트를 바이너리로 저장한다.
+ * -> @SpringBootApplication 은 validation 패키지만 스캔하므로 repository 패키지의 설정을 @Import 로 가져온다.
+ */
 @EnableBatchProcessing
 @SpringBootApplication
+@Import(BinaryContextBatchConfigurer.class)
 public class ValidationJob {
 
     @Autowired
@@ -29,6 +51,12 @@ public class ValidationJob {
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${validation.last-name.mode:exact}")
+    private String lastNameMode;
+
     @StepScope
     @Bean
     public FlatFileItemReader<Customer> customerItemReader(
@@ -51,15 +79,92 @@ public class ValidationJob {
         return (items) -> items.forEach(System.out::println);
     }
 
+    /**
+     * approximate 모드에서 검증을 통과한 lastName 을 잡 인스턴스 별로 저장하는 VALIDATION_LAST_NAME 테이블을 만든다.
+     */
+    @Bean
+    public DataSourceInitializer lastNameTableInitializer() {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("schema-validation.sql")));
+        initializer.setEnabled(isApproximate());
+        return initializer;
+    }
+
+    /**
+     * 청크 트랜잭션 안에서 쓰므로 롤백된 청크의 lastName 은 남지 않는다.
+     */
+    @StepScope
+    @Bean
+    public JdbcBatchItemWriter<Customer> lastNameItemWriter(
+        @Value("#{stepExecution.jobExecution.jobInstance.instanceId}") Long jobInstanceId
+    ) {
+        return new JdbcBatchItemWriterBuilder<Customer>()
+            .dataSource(dataSource)
+            .sql("INSERT INTO VALIDATION_LAST_NAME (JOB_INSTANCE_ID, LAST_NAME) VALUES (?, ?)")
+            .itemPreparedStatementSetter((customer, ps) -> {
+                ps.setLong(1, jobInstanceId);
+                ps.setString(2, customer.getLastName());
+            })
+            .build();
+    }
+
+    @Bean
+    public CompositeItemWriter<Customer> approximateItemWriter() {
+        CompositeItemWriter<Customer> itemWriter = new CompositeItemWriter<>();
+        itemWriter.setDelegates(List.of(lastNameItemWriter(null), itemWriter()));
+        return itemWriter;
+    }
+
+    /**
+     * 스텝이 완료되면 다시 확인할 일이 없으므로 잡 인스턴스의 lastName 을 지운다.
+     */
+    @Bean
+    public StepExecutionListener lastNameCleanupListener() {
+        return new StepExecutionListenerSupport() {
+            @Override
+            public ExitStatus afterStep(StepExecution stepExecution) {
+                if (isApproximate() && stepExecution.getStatus() == BatchStatus.COMPLETED) {
+                    new JdbcTemplate(dataSource).update("DELETE FROM VALIDATION_LAST_NAME WHERE JOB_INSTANCE_ID = ?",
+                        stepExecution.getJobExecution().getJobInstance().getInstanceId());
+                }
+                return null;
+            }
+        };
+    }
+
     @Bean
     public BeanValidatingItemProcessor<Customer> customerValidatingItemProcessor() {
         return new BeanValidatingItemProcessor<>();
     }
 
+    /**
+     * exact : 모든 lastName 을 OffHeapStringSet 에 보관한다.
+     * approximate : BloomFilterValueSet 을 사용하고, 있을 수도 있다고 판단한 값은 VALIDATION_LAST_NAME 테이블에서 확인한다.
+     * -> 커밋된 lastName 은 approximateItemWriter 가 같은 테이블에 쓴다. (기본키 조회 한번으로 확인한다.)
+     * -> expected-count 는 입력 파일의 건수에 맞춘다. (OffHeapStringSet 의 해시 테이블, Bloom filter 의 비트 수를 정한다.)
+     */
     @Bean
-    public UniqueLastNameValidator validator() {
+    public UniqueLastNameValidator validator(
+        @Value("${validation.last-name.expected-count:10000}") long expectedCount,
+        @Value("${validation.last-name.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
         UniqueLastNameValidator validator = new UniqueLastNameValidator();
         validator.setName("validator");
+
+        if (isApproximate()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            validator.setValueSetFactory(() -> new BloomFilterValueSet(expectedCount, falsePositiveRate));
+            validator.setDuplicateConfirmer(lastName -> {
+                Long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM VALIDATION_LAST_NAME WHERE JOB_INSTANCE_ID = ? AND LAST_NAME = ?", Long.class,
+                    StepSynchronizationManager.getContext().getStepExecution().getJobExecution().getJobInstance().getInstanceId(),
+                    lastName);
+                return count != null && count > 0;
+            });
+        } else {
+            validator.setValueSetFactory(() -> new OffHeapStringSet((int) Math.min(expectedCount, Integer.MAX_VALUE)));
+        }
         return validator;
     }
 
@@ -68,7 +173,7 @@ public class ValidationJob {
      */
     @Bean
     public ValidatingItemProcessor<Customer> customValidatingItemProcessor() {
-        return new ValidatingItemProcessor<>(validator());
+        return new ValidatingItemProcessor<>(validator(0, 0));
     }
 
     @Bean
@@ -77,10 +182,17 @@ public class ValidationJob {
             .<Customer, Customer>chunk(5)
             .reader(customerItemReader(null))
             .processor(customValidatingItemProcessor())
-            .writer(itemWriter())
+            .writer(isApproximate() ? approximateItemWriter() : itemWriter())
+            .stream(validator(0, 0))
+            .listener(validator(0, 0))
+            .listener(lastNameCleanupListener())
             .build();
     }
 
+    private boolean isApproximate() {
+        return "approximate".equals(lastNameMode);
+    }
+
     @Bean
     public Job job() {
         return this.jobBuilderFactory.get("customerValidationJob")
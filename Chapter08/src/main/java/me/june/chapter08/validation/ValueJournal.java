@@ -0,0 +1,126 @@
+package me.june.chapter08.validation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 값들을 [길이(int) + UTF-8 바이트] 형태로 이어 붙이는 파일
+ * -> 커밋마다 전체 값을 ExecutionContext 에 저장하는 대신, 추가된 값만 파일에 쓰고 ExecutionContext 에는 파일의 위치만 저장한다.
+ * -> 재시작시 저장된 위치까지 읽어 값을 복원하고, 그 이후 (롤백된 청크에서 쓴 값) 는 잘라낸다.
+ */
+public class ValueJournal implements AutoCloseable {
+
+    private final FileChannel channel;
+    private long position;
+
+    public ValueJournal(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * committedPosition 까지의 값을 읽어 consumer 에 전달하고, 이후의 내용은 잘라낸다.
+     */
+    public void restore(long committedPosition, Consumer<String> consumer) throws IOException {
+        if (channel.size() < committedPosition) {
+            throw new IOException("Journal is smaller than the position at last commit");
+        }
+
+        scan(committedPosition, (buffer, length) -> {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            consumer.accept(new String(bytes, StandardCharsets.UTF_8));
+            return true;
+        });
+
+        channel.truncate(committedPosition);
+        position = committedPosition;
+    }
+
+    /**
+     * end 까지 [길이 + 값] 을 차례로 읽는다.
+     * -> visitor 는 buffer 의 현재 위치부터 length 바이트 (값) 를 모두 읽어야 하고, false 를 반환하면 읽기를 멈춘다.
+     */
+    private void scan(long end, EntryVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long readPosition = 0;
+        while (readPosition < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - readPosition));
+            channel.read(buffer, readPosition);
+            buffer.flip();
+
+            int consumed = 0;
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt(buffer.position());
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    break;
+                }
+                buffer.position(buffer.position() + Integer.BYTES);
+                if (!visitor.visit(buffer, length)) {
+                    return;
+                }
+                consumed += Integer.BYTES + length;
+            }
+            if (consumed == 0) {
+                int length = buffer.remaining() >= Integer.BYTES ? buffer.getInt(buffer.position()) : -1;
+                if (length < 0 || readPosition + Integer.BYTES + length > end) {
+                    throw new IOException("Journal is truncated at " + readPosition);
+                }
+                buffer = ByteBuffer.allocate(Integer.BYTES + length); // 버퍼보다 큰 값
+                continue;
+            }
+            readPosition += consumed;
+        }
+    }
+
+    /**
+     * 값을 쓰고 디스크에 반영될 때 까지 기다린다. (반환된 위치가 커밋되기 전에 값이 파일에 있어야 한다.)
+     *
+     * @return 쓰기가 끝난 위치
+     */
+    public long append(Collection<String> values) throws IOException {
+        if (values.isEmpty()) {
+            return position;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                write(buffer);
+                if (buffer.capacity() < Integer.BYTES + bytes.length) {
+                    buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+                }
+            }
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        write(buffer);
+        channel.force(false);
+        return position;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private interface EntryVisitor {
+
+        boolean visit(ByteBuffer buffer, int length);
+    }
+}
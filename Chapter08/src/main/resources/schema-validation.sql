@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS VALIDATION_LAST_NAME (
+    JOB_INSTANCE_ID BIGINT NOT NULL,
+    LAST_NAME VARCHAR(255) NOT NULL,
+    PRIMARY KEY (JOB_INSTANCE_ID, LAST_NAME)
+);
@@ -0,0 +1,50 @@
+package me.june.chapter08.classifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import me.june.chapter08.domain.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemProcessor;
+
+class ZipCodeClassifierTest {
+
+    private final ItemProcessor<Customer, Customer> odd = item -> item;
+    private final ItemProcessor<Customer, Customer> even = item -> item;
+    private final ItemProcessor<Customer, Customer> invalid = item -> null;
+
+    @Test
+    void classifiesByLastDigit() {
+        ZipCodeClassifier classifier = new ZipCodeClassifier(odd, even);
+
+        assertThat(classifier.classify(customer("12345"))).isSameAs(odd);
+        assertThat(classifier.classify(customer("12340"))).isSameAs(even);
+        assertThat(classifier.classify(customer(" 02468 "))).isSameAs(even);
+        assertThat(classifier.classify(customer("-7"))).isSameAs(odd);
+    }
+
+    @Test
+    void rejectsZipCodesWithNonDigitCharacters() {
+        ZipCodeClassifier classifier = new ZipCodeClassifier(odd, even);
+        classifier.setInvalidItemProcessor(invalid);
+
+        for (String zip : new String[] {"1a345", "AB-12", "12 34", "+", "", " ", null}) {
+            assertThat(classifier.classify(customer(zip))).as(zip).isSameAs(invalid);
+        }
+    }
+
+    @Test
+    void throwsWithoutInvalidItemProcessor() {
+        ZipCodeClassifier classifier = new ZipCodeClassifier(odd, even);
+
+        assertThatThrownBy(() -> classifier.classify(customer("1a345")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("1a345");
+    }
+
+    private static Customer customer(String zip) {
+        Customer customer = new Customer();
+        customer.setZip(zip);
+        return customer;
+    }
+}
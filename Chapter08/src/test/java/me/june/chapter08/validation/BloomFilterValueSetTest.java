@@ -0,0 +1,45 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterValueSetTest {
+
+    @Test
+    void neverReportsAddedValuesAsMissing() {
+        BloomFilterValueSet set = new BloomFilterValueSet(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            set.add("value-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(set.mightContain("value-" + i)).isTrue();
+        }
+        assertThat(set.isExact()).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        BloomFilterValueSet set = new BloomFilterValueSet(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            set.add("value-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (set.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new BloomFilterValueSet(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilterValueSet(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilterValueSet(10, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
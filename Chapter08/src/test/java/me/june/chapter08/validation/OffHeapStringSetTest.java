@@ -0,0 +1,69 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class OffHeapStringSetTest {
+
+    @Test
+    void containsOnlyAddedValues() {
+        OffHeapStringSet set = new OffHeapStringSet(16);
+
+        set.add("Smith");
+        set.add("김");
+        set.add("");
+
+        assertThat(set.mightContain("Smith")).isTrue();
+        assertThat(set.mightContain("김")).isTrue();
+        assertThat(set.mightContain("")).isTrue();
+        assertThat(set.mightContain("smith")).isFalse();
+        assertThat(set.isExact()).isTrue();
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    @Test
+    void ignoresDuplicates() {
+        OffHeapStringSet set = new OffHeapStringSet(16);
+
+        set.add("Smith");
+        set.add("Smith");
+
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    /**
+     * 예상보다 많은 값을 넣으면 해시 테이블과 첫 청크가 커지며, 이미 넣은 값은 그대로 찾을 수 있어야 한다.
+     */
+    @Test
+    void growsBeyondExpectedSize() {
+        OffHeapStringSet set = new OffHeapStringSet(16);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            String value = "last-name-" + i + "-" + "x".repeat(i % 50);
+            set.add(value);
+            expected.add(value);
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (String value : expected) {
+            assertThat(set.mightContain(value)).isTrue();
+        }
+        assertThat(set.mightContain("last-name-50000-")).isFalse();
+    }
+
+    @Test
+    void storesValuesLargerThanInitialChunk() {
+        OffHeapStringSet set = new OffHeapStringSet(16);
+        String large = "a".repeat(200 * 1024);
+
+        set.add("small");
+        set.add(large);
+
+        assertThat(set.mightContain("small")).isTrue();
+        assertThat(set.mightContain(large)).isTrue();
+        assertThat(set.mightContain(large + "b")).isFalse();
+    }
+}
@@ -0,0 +1,122 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import me.june.chapter08.domain.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class UniqueLastNameValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 커밋되지 않은 값은 메모리에서, 커밋된 값은 duplicateConfirmer 로 확인하므로
+     * 거짓 양성이 많은 Bloom filter 에서도 정확하게 판단하고 저널은 읽지 않는다.
+     */
+    @Test
+    void approximateModeConfirmsCommittedValuesWithConfirmer() {
+        Set<String> committed = new HashSet<>();
+        List<String> confirmed = new ArrayList<>();
+        UniqueLastNameValidator validator = validator(() -> new BloomFilterValueSet(1, 0.5));
+        validator.setDuplicateConfirmer(lastName -> {
+            confirmed.add(lastName);
+            return committed.contains(lastName);
+        });
+        validator.setJournalPath(tempDir.resolve("lastNames.journal"));
+        ExecutionContext executionContext = new ExecutionContext();
+        validator.open(executionContext);
+
+        validator.validate(customer("Smith"));
+        validator.validate(customer("Jones"));
+        assertThatThrownBy(() -> validator.validate(customer("Jones"))).isInstanceOf(ValidationException.class);
+        validator.update(executionContext);
+        committed.addAll(List.of("Smith", "Jones")); // 스텝의 라이터가 커밋한 값
+
+        assertThatThrownBy(() -> validator.validate(customer("Smith"))).isInstanceOf(ValidationException.class);
+        for (int i = 0; i < 100; i++) {
+            validator.validate(customer("Name" + i));
+        }
+        assertThat(confirmed).contains("Smith").doesNotContain("Jones");
+        validator.close();
+    }
+
+    @Test
+    void approximateModeRequiresConfirmer() {
+        UniqueLastNameValidator validator = validator(() -> new BloomFilterValueSet(1, 0.5));
+        validator.setJournalPath(tempDir.resolve("lastNames.journal"));
+
+        assertThatThrownBy(() -> validator.open(new ExecutionContext())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void restoresCommittedValuesOnRestart() {
+        Path journalPath = tempDir.resolve("lastNames.journal");
+        UniqueLastNameValidator validator = validator(() -> new OffHeapStringSet(16));
+        validator.setJournalPath(journalPath);
+        ExecutionContext executionContext = new ExecutionContext();
+        validator.open(executionContext);
+        validator.validate(customer("Smith"));
+        validator.update(executionContext);
+        validator.validate(customer("Jones")); // 커밋되지 않은 값
+        validator.close();
+
+        UniqueLastNameValidator restarted = validator(() -> new OffHeapStringSet(16));
+        restarted.setJournalPath(journalPath);
+        restarted.open(new ExecutionContext(executionContext));
+
+        assertThatThrownBy(() -> restarted.validate(customer("Smith"))).isInstanceOf(ValidationException.class);
+        restarted.validate(customer("Jones"));
+        restarted.close();
+    }
+
+    /**
+     * journalPath 를 지정하지 않으면 잡 인스턴스마다 다른 파일을 사용하고, 스텝이 완료되면 삭제한다.
+     */
+    @Test
+    void defaultJournalIsScopedToJobInstance() {
+        UniqueLastNameValidator validator = validator(() -> new OffHeapStringSet(16));
+        StepExecution stepExecution = MetaDataInstanceFactory.createJobExecution("job", 1234L, 56L).createStepExecution("step");
+        Path journalPath = Paths.get(System.getProperty("java.io.tmpdir"),
+            "validator.lastNames." + stepExecution.getJobExecution().getJobInstance().getInstanceId() + ".journal");
+
+        validator.beforeStep(stepExecution);
+        validator.open(stepExecution.getExecutionContext());
+        validator.validate(customer("Smith"));
+        validator.update(stepExecution.getExecutionContext());
+        assertThat(journalPath).exists();
+
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        validator.afterStep(stepExecution);
+        validator.close();
+        assertThat(Files.exists(journalPath)).isFalse();
+    }
+
+    private static UniqueLastNameValidator validator(Supplier<UniqueValueSet> valueSetFactory) {
+        UniqueLastNameValidator validator = new UniqueLastNameValidator();
+        validator.setName("validator");
+        validator.setValueSetFactory(valueSetFactory);
+        return validator;
+    }
+
+    private static Customer customer(String lastName) {
+        Customer customer = new Customer();
+        customer.setLastName(lastName);
+        return customer;
+    }
+}
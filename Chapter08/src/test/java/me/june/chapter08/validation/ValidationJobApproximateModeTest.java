@@ -0,0 +1,108 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * approximate 모드는 Bloom filter 가 "있을 수도 있다" 고 판단한 값을 VALIDATION_LAST_NAME 테이블에서 확인한다.
+ * -> expected-count=1, false-positive-rate=0.5 로 거의 모든 값이 거짓 양성이 되도록 만든다.
+ */
+@SpringBootTest(classes = ValidationJob.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:validation-approximate;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.batch.job.enabled=false",
+    "validation.last-name.mode=approximate",
+    "validation.last-name.expected-count=1",
+    "validation.last-name.false-positive-rate=0.5"
+})
+class ValidationJobApproximateModeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> jobInstanceIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteJournals() throws Exception {
+        for (Long jobInstanceId : jobInstanceIds) {
+            Files.deleteIfExists(Paths.get(System.getProperty("java.io.tmpdir"),
+                "validator.lastNames." + jobInstanceId + ".journal"));
+        }
+    }
+
+    @Test
+    void acceptsUniqueNamesDespiteFalsePositives() throws Exception {
+        JobExecution execution = run("unique.csv", lastNames(12));
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM VALIDATION_LAST_NAME WHERE JOB_INSTANCE_ID = ?",
+            Long.class, execution.getJobInstance().getInstanceId())).isZero();
+    }
+
+    /**
+     * 청크 사이즈는 5 이므로 7 번째 아이템은 커밋된 첫 청크의 값과 중복된다.
+     */
+    @Test
+    void rejectsNameCommittedInEarlierChunk() throws Exception {
+        List<String> lastNames = lastNames(6);
+        lastNames.add("Name1");
+
+        JobExecution execution = run("duplicate.csv", lastNames);
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(execution.getAllFailureExceptions()).extracting(Throwable::getMessage)
+            .anyMatch(message -> message.contains("Name1"));
+        assertThat(jdbcTemplate.queryForList("SELECT LAST_NAME FROM VALIDATION_LAST_NAME WHERE JOB_INSTANCE_ID = ?",
+            String.class, execution.getJobInstance().getInstanceId()))
+            .containsExactlyInAnyOrder("Name0", "Name1", "Name2", "Name3", "Name4");
+    }
+
+    private JobExecution run(String fileName, List<String> lastNames) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String lastName : lastNames) {
+            lines.add("Michael,T," + lastName + ",123 4th Street,Chicago,IL,60606");
+        }
+        Path file = Files.write(tempDir.resolve(fileName), lines);
+
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+            .addString("customerFile", file.toUri().toString())
+            .toJobParameters());
+        jobInstanceIds.add(execution.getJobInstance().getInstanceId());
+        return execution;
+    }
+
+    private static List<String> lastNames(int count) {
+        List<String> lastNames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lastNames.add("Name" + i);
+        }
+        return lastNames;
+    }
+}
@@ -0,0 +1,50 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import me.june.chapter08.repository.BinaryContextBatchConfigurer;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * ValidationJob 이 BinaryContextBatchConfigurer 의 JobRepository 를 사용하는지 확인한다.
+ * -> MySQL 대신 임베디드 H2 를 사용하고, 잡은 실행하지 않는다.
+ */
+@SpringBootTest(classes = ValidationJob.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:validation-job;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.batch.job.enabled=false"
+})
+class ValidationJobContextTest {
+
+    @Autowired
+    private BatchConfigurer batchConfigurer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void storesExecutionContextsInBinaryFormat() throws Exception {
+        assertThat(batchConfigurer).isInstanceOf(BinaryContextBatchConfigurer.class);
+
+        JobExecution jobExecution = jobRepository.createJobExecution("validationJob", new JobParameters());
+        jobExecution.getExecutionContext().putLong("read.count", 42L);
+        jobRepository.updateExecutionContext(jobExecution);
+
+        String stored = jdbcTemplate.queryForObject(
+            "SELECT SHORT_CONTEXT FROM BATCH_JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID = ?",
+            String.class, jobExecution.getId());
+        assertThat(stored).startsWith("BIN1:");
+    }
+}
@@ -0,0 +1,69 @@
+package me.june.chapter08.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ValueJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restoresValuesUpToCommittedPositionAndTruncatesTheRest() throws Exception {
+        Path path = tempDir.resolve("values.journal");
+        long committed;
+        try (ValueJournal journal = new ValueJournal(path)) {
+            journal.restore(0, value -> {
+            });
+            journal.append(List.of("Smith", "김"));
+            committed = journal.append(List.of("Jones"));
+            journal.append(List.of("rolled-back"));
+        }
+
+        List<String> restored = new ArrayList<>();
+        try (ValueJournal journal = new ValueJournal(path)) {
+            journal.restore(committed, restored::add);
+            assertThat(journal.append(List.of("Brown"))).isGreaterThan(committed);
+        }
+
+        assertThat(restored).containsExactly("Smith", "김", "Jones");
+        assertThat(Files.size(path)).isEqualTo(committed + Integer.BYTES + "Brown".length());
+    }
+
+    /**
+     * 읽기 버퍼 (64KB) 보다 큰 값도 복원할 수 있어야 한다.
+     */
+    @Test
+    void restoresValuesLargerThanReadBuffer() throws Exception {
+        Path path = tempDir.resolve("values.journal");
+        String large = "a".repeat(100 * 1024);
+        long committed;
+        try (ValueJournal journal = new ValueJournal(path)) {
+            journal.restore(0, value -> {
+            });
+            committed = journal.append(List.of("small", large, "last"));
+        }
+
+        List<String> restored = new ArrayList<>();
+        try (ValueJournal journal = new ValueJournal(path)) {
+            journal.restore(committed, restored::add);
+        }
+        assertThat(restored).containsExactly("small", large, "last");
+    }
+
+    @Test
+    void failsWhenJournalIsShorterThanCommittedPosition() throws Exception {
+        try (ValueJournal journal = new ValueJournal(tempDir.resolve("values.journal"))) {
+            assertThatThrownBy(() -> journal.restore(10, value -> {
+            })).isInstanceOf(IOException.class);
+        }
+    }
+}
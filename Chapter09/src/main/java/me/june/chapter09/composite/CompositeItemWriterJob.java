@@ -16,10 +16,6 @@ import org.springframework.batch.item.database.JpaItemWriter;
 import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
-import org.springframework.batch.item.support.CompositeItemWriter;
-import org.springframework.batch.item.support.builder.ClassifierCompositeItemWriterBuilder;
-import org.springframework.batch.item.support.builder.CompositeItemWriterBuilder;
 import org.springframework.batch.item.xml.StaxEventItemWriter;
 import org.springframework.batch.item.xml.builder.StaxEventItemWriterBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -95,23 +91,32 @@ public class CompositeItemWriterJob {
             .build();
     }
 
+    /**
+     * XML 파일 쓰기는 전용 스레드에서 JPA 쓰기와 동시에 실행한다.
+     * -> JPA 라이터는 청크 트랜잭션에 참여해야 하므로 청크 스레드에서 실행한다.
+     */
     @Bean
-    public CompositeItemWriter<Customer> compositeItemWriter() throws Exception {
-        return new CompositeItemWriterBuilder<Customer>()
-            .delegates(
-                List.of(xmlDelegateItemWriter(null), jpaDeleteItemWriter(null))
-            )
-            .build();
+    public ParallelCompositeItemWriter<Customer> compositeItemWriter() throws Exception {
+        ParallelCompositeItemWriter<Customer> itemWriter = new ParallelCompositeItemWriter<>();
+        itemWriter.setDelegates(List.of(xmlDelegateItemWriter(null), jpaDeleteItemWriter(null)));
+        itemWriter.setTransactionalDelegates(List.of(jpaDeleteItemWriter(null)));
+        return itemWriter;
     }
 
+    /**
+     * 주 (state) 에 따라 XML 파일 또는 JPA 로 나눠 쓰되, 두 쓰기를 동시에 실행한다.
+     * -> compositeItemWriter 와 같은 라이터이므로 XML 파일 쓰기는 전용 스레드에서, 청크 트랜잭션의 롤백을 따른다.
+     */
     @Bean
-    public ClassifierCompositeItemWriter<Customer> classifierCompositeItemWriter()
-        throws Exception {
+    public ParallelCompositeItemWriter<Customer> classifierCompositeItemWriter() throws Exception {
         Classifier<Customer, ItemWriter<? super Customer>> classifier =
             new CustomerClassifier(xmlDelegateItemWriter(null), jpaDeleteItemWriter(null));
-        return new ClassifierCompositeItemWriterBuilder<Customer>()
-            .classifier(classifier)
-            .build();
+
+        ParallelCompositeItemWriter<Customer> itemWriter = new ParallelCompositeItemWriter<>();
+        itemWriter.setClassifier(classifier);
+        itemWriter.setDelegates(List.of(xmlDelegateItemWriter(null), jpaDeleteItemWriter(null)));
+        itemWriter.setTransactionalDelegates(List.of(jpaDeleteItemWriter(null)));
+        return itemWriter;
     }
 
     @Bean
@@ -130,8 +135,28 @@ public class CompositeItemWriterJob {
             .build();
     }
 
+    @Bean
+    public Step classifierCompositeWriterStep() throws Exception {
+        return this.stepBuilderFactory.get("classifierCompositeWriterStep")
+            .<Customer, Customer>chunk(10)
+            .reader(customerFileReader(null))
+            .writer(classifierCompositeItemWriter())
+            .build();
+    }
+
+    @Bean
+    public Job classifierCompositeWriterJob() throws Exception {
+        return this.jobBuilderFactory.get("classifierCompositeWriterJob")
+            .start(classifierCompositeWriterStep())
+            .build();
+    }
+
+    /**
+     * 두 잡이 같은 outputFile 을 쓰므로 spring.batch.job.names 로 실행할 잡 하나를 고른다. (classifierCompositeWriterJob 을 실행하려면 이름을 바꾼다.)
+     */
     public static void main(String[] args) {
         SpringApplication.run(CompositeItemWriterJob.class,
+            "--spring.batch.job.names=compositeWriterJob",
             "customerFile=classpath:input/customerWithEmail.csv",
             "outputFile=file:xmlCustomer.xml",
             "id=1");
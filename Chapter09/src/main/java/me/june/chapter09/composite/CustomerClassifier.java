@@ -4,24 +4,34 @@ import me.june.chapter09.domain.Customer;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.classify.Classifier;
 
+/**
+ * 주 (state) 의 첫 글자가 A ~ M 이라면 fileItemWriter, 그 외에는 jpaItemWriter 로 분류한다.
+ * -> String.matches("^[A-M].*") 는 호출마다 정규식을 컴파일하므로, 첫 글자 (ASCII) 별 ItemWriter 테이블을 생성 시점에 만들어둔다.
+ * -> classify 에서는 첫 글자로 테이블만 조회한다. (객체를 생성하지 않는다.)
+ */
 public class CustomerClassifier implements Classifier<Customer, ItemWriter<? super Customer>> {
 
-    private ItemWriter<Customer> fileItemWriter;
+    private final ItemWriter<Customer>[] writersByFirstChar;
     private ItemWriter<Customer> jpaItemWriter;
 
+    @SuppressWarnings("unchecked")
     public CustomerClassifier(
         ItemWriter<Customer> fileItemWriter,
         ItemWriter<Customer> jpaItemWriter
     ) {
-        this.fileItemWriter = fileItemWriter;
         this.jpaItemWriter = jpaItemWriter;
+        this.writersByFirstChar = new ItemWriter[128];
+        for (char c = 0; c < writersByFirstChar.length; c++) {
+            writersByFirstChar[c] = c >= 'A' && c <= 'M' ? fileItemWriter : jpaItemWriter;
+        }
     }
 
     @Override
     public ItemWriter<? super Customer> classify(Customer customer) {
-        if (customer.getState().matches("^[A-M].*")) {
-            return fileItemWriter;
+        String state = customer.getState();
+        if (state == null || state.isEmpty() || state.charAt(0) >= writersByFirstChar.length) {
+            return jpaItemWriter;
         }
-        return jpaItemWriter;
+        return writersByFirstChar[state.charAt(0)];
     }
 }
@@ -0,0 +1,346 @@
+package me.june.chapter09.composite;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.classify.Classifier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 모든 delegate 에 청크 전체를 쓰되, 트랜잭션에 참여하지 않아도 되는 delegate 는 동시에 실행하는 CompositeItemWriter 대체 구현체
+ * -> CompositeItemWriter 는 delegate 를 순서대로 실행하므로 청크의 쓰기 시간은 모든 delegate 의 쓰기 시간의 합이 된다.
+ * -> transactionalDelegates (JPA 등) 는 청크 스레드에서, 그 외의 delegate (파일, XML) 는 delegate 마다 전용 스레드에서 동시에 실행하고
+ *    커밋 전에 모두 끝날때 까지 기다린다.
+ *
+ * 파일 버퍼의 롤백
+ * -> FlatFileItemWriter, StaxEventItemWriter 는 트랜잭션이 활성화 되어 있다면 쓴 내용을 스레드에 바인딩된 버퍼에 모아두었다가
+ *    커밋시 파일에 쓰고, 롤백시 버린다. (TransactionAwareBufferedWriter)
+ * -> 전용 스레드에서도 이렇게 동작하도록 쓰기 전에 해당 스레드의 트랜잭션 동기화를 활성화하고,
+ *    청크 트랜잭션의 beforeCommit / afterCommit / afterCompletion 을 전용 스레드로 전달한다.
+ * -> 버퍼가 스레드에 바인딩되어 있으므로 open / update / close 도 같은 전용 스레드에서 호출한다. (update 에서 버퍼 크기를 포함한 위치를 저장한다.)
+ *
+ * classifier
+ * -> classifier 를 지정하면 ClassifierCompositeItemWriter 처럼 청크를 delegate 별로 나눈 뒤, 나눈 아이템만 각 delegate 에 쓴다.
+ *    (아이템이 없는 delegate 는 쓰지 않는다.)
+ * -> 전용 스레드를 만들고 open 하려면 미리 알아야 하므로, classifier 가 반환할 수 있는 delegate 는 모두 delegates 로 지정해야 한다.
+ *
+ * delegate 하나가 실패하더라도 나머지가 끝날때 까지 기다린 뒤 첫번째 예외를 던진다.
+ * delegate 별 청크 쓰기 시간을 batch.item.writer.delegate 타이머로 기록한다.
+ */
+public class ParallelCompositeItemWriter<T> implements ItemStreamWriter<T>, InitializingBean {
+
+    private List<ItemWriter<? super T>> delegates;
+    private final Set<ItemWriter<?>> transactionalDelegates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Classifier<T, ItemWriter<? super T>> classifier;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private final Map<ItemWriter<?>, ExecutorService> delegateThreads = new IdentityHashMap<>();
+
+    public void setDelegates(List<ItemWriter<? super T>> delegates) {
+        this.delegates = delegates;
+    }
+
+    public void setTransactionalDelegates(Collection<? extends ItemWriter<?>> transactionalDelegates) {
+        this.transactionalDelegates.clear();
+        this.transactionalDelegates.addAll(transactionalDelegates);
+    }
+
+    public void setClassifier(Classifier<T, ItemWriter<? super T>> classifier) {
+        this.classifier = classifier;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notEmpty(delegates, "The 'delegates' may not be empty");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        // 이전 전용 스레드에는 delegate 의 버퍼가 바인딩되어 있으므로, close 없이 다시 open 하면 스레드와 버퍼를 잃어버린다.
+        Assert.state(delegateThreads.isEmpty(), "The writer is already open. Call close() before re-opening it.");
+        for (ItemWriter<? super T> delegate : delegates) {
+            if (!transactionalDelegates.contains(delegate)) {
+                int index = delegateThreads.size();
+                delegateThreads.put(delegate, Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "composite-writer-" + index);
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+            }
+            if (delegate instanceof ItemStream) {
+                onDelegateThread(delegate, () -> ((ItemStream) delegate).open(executionContext));
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (ItemWriter<? super T> delegate : delegates) {
+            if (delegate instanceof ItemStream) {
+                onDelegateThread(delegate, () -> ((ItemStream) delegate).update(executionContext));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            for (ItemWriter<? super T> delegate : delegates) {
+                if (delegate instanceof ItemStream) {
+                    onDelegateThread(delegate, () -> ((ItemStream) delegate).close());
+                }
+            }
+        } finally {
+            delegateThreads.values().forEach(ExecutorService::shutdown);
+            delegateThreads.clear();
+        }
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+
+        List<Future<?>> submitted = new ArrayList<>();
+        List<Map.Entry<ItemWriter<? super T>, List<? extends T>>> local = new ArrayList<>();
+        for (Map.Entry<ItemWriter<? super T>, List<? extends T>> entry : itemsByDelegate(items).entrySet()) {
+            ExecutorService thread = delegateThreads.get(entry.getKey());
+            if (thread == null) {
+                local.add(entry); // 트랜잭션에 참여하는 delegate (또는 open 되지 않은 경우)
+                continue;
+            }
+            submitted.add(thread.submit(inStepScope(stepContext, () -> {
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.initSynchronization();
+                    TransactionSynchronizationManager.setActualTransactionActive(true);
+                }
+                write(entry.getKey(), entry.getValue());
+                return null;
+            })));
+        }
+
+        boolean chunkTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (chunkTransaction && !submitted.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new DelegateThreadSynchronization());
+        }
+
+        Exception failure = null;
+        for (Map.Entry<ItemWriter<? super T>, List<? extends T>> entry : local) {
+            try {
+                write(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+
+        for (Future<?> future : submitted) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        // 청크 트랜잭션이 없다면 바로 커밋 (또는 롤백) 한다.
+        if (!chunkTransaction && !submitted.isEmpty()) {
+            DelegateThreadSynchronization synchronization = new DelegateThreadSynchronization();
+            if (failure == null) {
+                synchronization.beforeCommit(false);
+                synchronization.beforeCompletion();
+                synchronization.afterCommit();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            } else {
+                synchronization.beforeCompletion();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * classifier 가 없다면 모든 delegate 에 청크 전체를, 있다면 delegate 별로 나눈 아이템을 쓴다. (delegates 의 순서를 따른다.)
+     */
+    private Map<ItemWriter<? super T>, List<? extends T>> itemsByDelegate(List<? extends T> items) {
+        Map<ItemWriter<? super T>, List<? extends T>> itemsByDelegate = new LinkedHashMap<>();
+        if (classifier == null) {
+            for (ItemWriter<? super T> delegate : delegates) {
+                itemsByDelegate.put(delegate, items);
+            }
+            return itemsByDelegate;
+        }
+
+        Map<ItemWriter<? super T>, List<T>> classified = new LinkedHashMap<>();
+        for (ItemWriter<? super T> delegate : delegates) {
+            classified.put(delegate, new ArrayList<>());
+        }
+        for (T item : items) {
+            ItemWriter<? super T> delegate = classifier.classify(item);
+            List<T> delegateItems = classified.get(delegate);
+            if (delegateItems == null) {
+                throw new IllegalStateException("Classified delegate is not registered in 'delegates': " + delegate);
+            }
+            delegateItems.add(item);
+        }
+        classified.forEach((delegate, delegateItems) -> {
+            if (!delegateItems.isEmpty()) {
+                itemsByDelegate.put(delegate, delegateItems);
+            }
+        });
+        return itemsByDelegate;
+    }
+
+    private void write(ItemWriter<? super T> delegate, List<? extends T> items) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.write(items);
+        } finally {
+            Timer.builder("batch.item.writer.delegate")
+                .tag("delegate", ClassUtils.getUserClass(delegate).getSimpleName())
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @StepScope 로 선언된 delegate 를 전용 스레드에서도 찾을 수 있도록 스텝 컨텍스트를 등록한다.
+     */
+    private <V> Callable<V> inStepScope(StepContext stepContext, Callable<V> callable) {
+        if (stepContext == null) {
+            return callable;
+        }
+        return () -> {
+            StepSynchronizationManager.register(stepContext.getStepExecution());
+            try {
+                return callable.call();
+            } finally {
+                StepSynchronizationManager.close();
+            }
+        };
+    }
+
+    /**
+     * 전용 스레드가 있는 delegate 라면 전용 스레드에서, 아니라면 현재 스레드에서 실행하고 끝날때 까지 기다린다.
+     */
+    private void onDelegateThread(ItemWriter<?> delegate, Runnable action) {
+        ExecutorService thread = delegateThreads.get(delegate);
+        if (thread == null) {
+            action.run();
+            return;
+        }
+        await(thread.submit(inStepScope(StepSynchronizationManager.getContext(), () -> {
+            action.run();
+            return null;
+        })));
+    }
+
+    private void onDelegateThreads(Runnable action) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (ExecutorService thread : delegateThreads.values()) {
+            futures.add(thread.submit(action));
+        }
+        futures.forEach(this::await);
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ItemStreamException("Delegate writer failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("Interrupted while waiting for delegate writer", e);
+        }
+    }
+
+    /**
+     * 청크 트랜잭션의 콜백을 각 전용 스레드에 등록된 트랜잭션 동기화로 전달한다.
+     */
+    private class DelegateThreadSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            onDelegateThreads(() -> {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationUtils.triggerBeforeCommit(readOnly);
+                }
+            });
+        }
+
+        @Override
+        public void beforeCompletion() {
+            onDelegateThreads(() -> {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationUtils.triggerBeforeCompletion();
+                }
+            });
+        }
+
+        @Override
+        public void afterCommit() {
+            onDelegateThreads(() -> {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationUtils.triggerAfterCommit();
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            onDelegateThreads(() -> {
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                    return;
+                }
+                try {
+                    TransactionSynchronizationUtils.invokeAfterCompletion(
+                        TransactionSynchronizationManager.getSynchronizations(), status);
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                    TransactionSynchronizationManager.setActualTransactionActive(false);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package me.june.chapter09.custom.propertyextract;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.MethodInvoker;
+
+/**
+ * 아이템의 프로퍼티를 꺼내 대상 메서드의 인자로 전달하는 PropertyExtractingDelegatingItemWriter 대체 구현체
+ * -> PropertyExtractingDelegatingItemWriter 는 아이템마다 BeanWrapper 를 만들어 프로퍼티를 꺼내고,
+ *    MethodInvoker 로 대상 메서드를 다시 찾아 리플렉션으로 호출한다.
+ * -> 이 라이터는 대상 메서드를 afterPropertiesSet 에서 MethodHandle 로 바인딩하고,
+ *    프로퍼티의 getter 는 아이템 클래스별로 한번만 찾아 캐시한다.
+ * -> "address.city", "names[0]" 처럼 중첩/인덱스 표기법을 사용한 필드는 기존처럼 BeanWrapper 로 꺼낸다.
+ *
+ * 대상 메서드 선택
+ * -> 제네릭 인터페이스를 구현하면서 생긴 브릿지 메서드는 후보에서 제외한다.
+ * -> 같은 이름, 같은 인자 수의 메서드가 여러개라면 MethodInvoker 와 같이 꺼낸 인자의 타입과 가장 가까운 메서드를 고른다.
+ *    (인자 타입의 조합별로 선택한 MethodHandle 을 캐시한다.)
+ */
+public class MethodHandlePropertyExtractingItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    private Object targetObject;
+    private String targetMethod;
+    private String[] fieldsUsedAsTargetMethodArguments;
+
+    private List<Method> candidates;
+    private MethodHandle handle; // 후보가 하나인 경우
+    private final Map<List<Class<?>>, MethodHandle> overloads = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Function<Object, Object>[]> extractors = new ConcurrentHashMap<>();
+
+    public void setTargetObject(Object targetObject) {
+        this.targetObject = targetObject;
+    }
+
+    public void setTargetMethod(String targetMethod) {
+        this.targetMethod = targetMethod;
+    }
+
+    public void setFieldsUsedAsTargetMethodArguments(String[] fieldsUsedAsTargetMethodArguments) {
+        this.fieldsUsedAsTargetMethodArguments = fieldsUsedAsTargetMethodArguments;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(targetObject, "targetObject must be set");
+        Assert.hasText(targetMethod, "targetMethod must be set");
+        Assert.notEmpty(fieldsUsedAsTargetMethodArguments, "fieldsUsedAsTargetMethodArguments must be set");
+
+        int argumentCount = fieldsUsedAsTargetMethodArguments.length;
+        candidates = new ArrayList<>();
+        for (Method candidate : targetObject.getClass().getMethods()) {
+            if (candidate.getName().equals(targetMethod) && candidate.getParameterCount() == argumentCount
+                && !Modifier.isStatic(candidate.getModifiers()) && !candidate.isBridge()) {
+                candidates.add(candidate);
+            }
+        }
+        Assert.state(!candidates.isEmpty(), () -> "No public method " + targetMethod + " with " + argumentCount
+            + " arguments on " + targetObject.getClass());
+
+        handle = candidates.size() == 1 ? bind(candidates.get(0)) : null;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        for (T item : items) {
+            Function<Object, Object>[] itemExtractors = extractors.computeIfAbsent(item.getClass(), this::createExtractors);
+            Object[] arguments = new Object[itemExtractors.length];
+            for (int i = 0; i < itemExtractors.length; i++) {
+                arguments[i] = itemExtractors[i].apply(item);
+            }
+
+            MethodHandle target = handle != null ? handle : resolveOverload(arguments);
+            try {
+                Object ignored = target.invokeExact(arguments);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    /**
+     * 인자 타입 (null 은 null) 의 조합으로 캐시하고, 처음 보는 조합이라면 가장 가까운 메서드를 고른다.
+     */
+    private MethodHandle resolveOverload(Object[] arguments) {
+        Class<?>[] argumentTypes = new Class<?>[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            argumentTypes[i] = arguments[i] == null ? null : arguments[i].getClass();
+        }
+        return overloads.computeIfAbsent(Arrays.asList(argumentTypes), types -> {
+            try {
+                return bind(selectOverload(arguments));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Method selectOverload(Object[] arguments) {
+        Method selected = null;
+        int selectedWeight = Integer.MAX_VALUE;
+        boolean ambiguous = false;
+        for (Method candidate : candidates) {
+            int weight = MethodInvoker.getTypeDifferenceWeight(candidate.getParameterTypes(), arguments);
+            if (weight < selectedWeight) {
+                selected = candidate;
+                selectedWeight = weight;
+                ambiguous = false;
+            } else if (weight == selectedWeight && weight != Integer.MAX_VALUE) {
+                ambiguous = true;
+            }
+        }
+        Assert.state(selected != null, () -> "No method " + targetMethod + " on " + targetObject.getClass()
+            + " accepts arguments " + Arrays.toString(arguments));
+        Assert.state(!ambiguous, () -> "Ambiguous target method " + targetMethod + " on " + targetObject.getClass()
+            + " for arguments " + Arrays.toString(arguments));
+        return selected;
+    }
+
+    private MethodHandle bind(Method method) throws IllegalAccessException {
+        int argumentCount = method.getParameterCount();
+        return MethodHandles.publicLookup().unreflect(method)
+            .bindTo(targetObject)
+            .asType(MethodType.genericMethodType(argumentCount))
+            .asSpreader(Object[].class, argumentCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object>[] createExtractors(Class<?> itemClass) {
+        Function<Object, Object>[] itemExtractors = new Function[fieldsUsedAsTargetMethodArguments.length];
+        for (int i = 0; i < itemExtractors.length; i++) {
+            itemExtractors[i] = createExtractor(itemClass, fieldsUsedAsTargetMethodArguments[i]);
+        }
+        return itemExtractors;
+    }
+
+    private Function<Object, Object> createExtractor(Class<?> itemClass, String field) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(itemClass, field);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            // 중첩/인덱스 표기법
+            return item -> new BeanWrapperImpl(item).getPropertyValue(field);
+        }
+
+        MethodHandle getter;
+        try {
+            getter = MethodHandles.publicLookup().unreflect(descriptor.getReadMethod())
+                .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            return item -> new BeanWrapperImpl(item).getPropertyValue(field);
+        }
+        return item -> {
+            try {
+                return getter.invokeExact(item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to read property " + field, t);
+            }
+        };
+    }
+}
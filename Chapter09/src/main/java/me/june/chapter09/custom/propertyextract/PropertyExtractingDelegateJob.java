@@ -8,7 +8,6 @@ import org.springframework.batch.core.configuration.annotation.EnableBatchProces
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.adapter.PropertyExtractingDelegatingItemWriter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,13 +48,13 @@ public class PropertyExtractingDelegateJob {
     }
 
     @Bean
-    public PropertyExtractingDelegatingItemWriter<Customer> itemWriter(
+    public MethodHandlePropertyExtractingItemWriter<Customer> itemWriter(
         CustomerService customerService) {
-        PropertyExtractingDelegatingItemWriter<Customer> itemWriter = new PropertyExtractingDelegatingItemWriter<>();
+        MethodHandlePropertyExtractingItemWriter<Customer> itemWriter = new MethodHandlePropertyExtractingItemWriter<>();
         itemWriter.setTargetObject(customerService);
         itemWriter.setTargetMethod("logCustomerAddress");
 
-        // 객체 표기법, 인덱스 표기법 모두 지원한다.
+        // 객체 표기법, 인덱스 표기법 모두 지원한다. (단순 프로퍼티는 getter 를 MethodHandle 로 캐시한다.)
         itemWriter.setFieldsUsedAsTargetMethodArguments(
             new String[]{
                 "address", "city", "state", "zip"
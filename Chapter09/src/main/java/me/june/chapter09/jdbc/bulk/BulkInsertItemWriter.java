@@ -0,0 +1,294 @@
+package me.june.chapter09.jdbc.bulk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 청크를 아이템 당 INSERT 한번이 아닌 대량 적재 구문으로 쓰는 JdbcBatchItemWriter 대체 구현체
+ * -> JdbcBatchItemWriter 는 JDBC 배치를 사용하더라도 드라이버가 아이템 마다 INSERT 를 실행한다. (rewriteBatchedStatements 가 없다면)
+ *
+ * MULTI_ROW_VALUES (기본값)
+ * -> INSERT INTO table (c1, c2) VALUES (?, ?), (?, ?), ... 처럼 rowsPerStatement 개의 행을 하나의 구문으로 묶는다.
+ * -> rowsPerStatement 로 나누어 떨어지는 부분은 하나의 PreparedStatement 로 JDBC 배치를 사용하고, 나머지 행만 별도의 구문으로 실행한다.
+ *
+ * LOAD_DATA_LOCAL_INFILE (MySQL 전용)
+ * -> 청크를 탭으로 구분된 텍스트로 메모리 버퍼에 만든 뒤, 파일 대신 이 버퍼를 LOAD DATA LOCAL INFILE 의 입력 스트림으로 전달한다.
+ * -> 드라이버는 JdbcStatement.setLocalInfileInputStream 을 제공하는 MySQL Connector/J 여야 하고, URL 에 allowLoadLocalInfile=true 가 필요하다.
+ *    (application.yaml 의 기본 URL 에는 없으므로 jdbc.bulk.mode 와 함께 추가해야 한다.)
+ * -> 드라이버는 runtime 의존성이므로 메서드는 리플렉션으로 찾는다.
+ *
+ * 두 모드 모두 ItemPreparedStatementSetter 를 그대로 사용한다.
+ * -> setter 에는 1 ~ columns.length 의 인덱스를 사용하는 PreparedStatement 를 전달하고,
+ *    MULTI_ROW_VALUES 는 행의 위치 만큼 인덱스를 옮겨서 (OffsetPreparedStatement), LOAD_DATA_LOCAL_INFILE 은 값을 행 버퍼에 기록해서
+ *    실제 구문에 반영한다.
+ * -> 커넥션은 JdbcTemplate 으로 얻으므로 청크 트랜잭션에 참여한다.
+ */
+public class BulkInsertItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    public enum Mode {
+        MULTI_ROW_VALUES,
+        LOAD_DATA_LOCAL_INFILE
+    }
+
+    private static final String MYSQL_STATEMENT_CLASS = "com.mysql.cj.jdbc.JdbcStatement";
+
+    private JdbcTemplate jdbcTemplate;
+    private String table;
+    private String[] columns;
+    private ItemPreparedStatementSetter<? super T> itemPreparedStatementSetter;
+    private Mode mode = Mode.MULTI_ROW_VALUES;
+    private int rowsPerStatement = 100;
+    private boolean assertUpdates = true;
+
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void setTable(String table) {
+        this.table = table;
+    }
+
+    public void setColumns(String... columns) {
+        this.columns = columns;
+    }
+
+    public void setItemPreparedStatementSetter(ItemPreparedStatementSetter<? super T> itemPreparedStatementSetter) {
+        this.itemPreparedStatementSetter = itemPreparedStatementSetter;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setRowsPerStatement(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    /**
+     * 반영된 행의 수가 아이템 수와 다르다면 예외를 던진다. (JdbcBatchItemWriter 와 동일)
+     */
+    public void setAssertUpdates(boolean assertUpdates) {
+        this.assertUpdates = assertUpdates;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jdbcTemplate, "A DataSource is required");
+        Assert.hasText(table, "A table is required");
+        Assert.notEmpty(columns, "Columns are required");
+        Assert.notNull(itemPreparedStatementSetter, "An ItemPreparedStatementSetter is required");
+        Assert.notNull(mode, "A mode is required");
+        Assert.isTrue(rowsPerStatement > 0, "rowsPerStatement must be greater than 0");
+        Assert.isTrue((long) rowsPerStatement * columns.length <= 65_535,
+            "rowsPerStatement * columns must not exceed 65535 placeholders");
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        long updated = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+            mode == Mode.LOAD_DATA_LOCAL_INFILE ? loadData(connection, items) : insertRows(connection, items));
+
+        if (assertUpdates && updated != items.size()) {
+            throw new EmptyResultDataAccessException("Expected " + items.size() + " rows to be inserted into "
+                + table + " but " + updated + " were inserted", items.size());
+        }
+    }
+
+    private long insertRows(Connection connection, List<? extends T> items) throws SQLException {
+        int fullStatements = items.size() / rowsPerStatement;
+        int remainder = items.size() % rowsPerStatement;
+        long updated = 0;
+
+        if (fullStatements > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(insertSql(rowsPerStatement))) {
+                for (int statement = 0; statement < fullStatements; statement++) {
+                    bindRows(ps, items, statement * rowsPerStatement, rowsPerStatement);
+                    if (fullStatements == 1) {
+                        return ps.executeUpdate() + insertRemainder(connection, items, remainder);
+                    }
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    // SUCCESS_NO_INFO 라면 드라이버가 행 수를 알려주지 않은 것이므로 모두 반영된 것으로 본다.
+                    updated += count == Statement.SUCCESS_NO_INFO ? rowsPerStatement : count;
+                }
+            }
+        }
+        return updated + insertRemainder(connection, items, remainder);
+    }
+
+    private int insertRemainder(Connection connection, List<? extends T> items, int remainder) throws SQLException {
+        if (remainder == 0) {
+            return 0;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(insertSql(remainder))) {
+            bindRows(ps, items, items.size() - remainder, remainder);
+            return ps.executeUpdate();
+        }
+    }
+
+    private void bindRows(PreparedStatement ps, List<? extends T> items, int from, int rows) throws SQLException {
+        OffsetPreparedStatement shifted = new OffsetPreparedStatement(ps);
+        for (int row = 0; row < rows; row++) {
+            shifted.setOffset(row * columns.length);
+            itemPreparedStatementSetter.setValues(items.get(from + row), shifted);
+        }
+    }
+
+    String insertSql(int rows) {
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < columns.length; i++) {
+            row.append(i == 0 ? "?" : ", ?");
+        }
+        row.append(')');
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+            .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    private long loadData(Connection connection, List<? extends T> items) throws SQLException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(items.size() * columns.length * 16);
+        Object[] row = new Object[columns.length];
+        PreparedStatement recorder = recording(row);
+        StringBuilder line = new StringBuilder();
+
+        for (T item : items) {
+            Arrays.fill(row, null);
+            itemPreparedStatementSetter.setValues(item, recorder);
+
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    line.append('\t');
+                }
+                appendField(line, row[i]);
+            }
+            line.append('\n');
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.write(bytes, 0, bytes.length);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            setLocalInfileInputStream(statement, new ByteArrayInputStream(buffer.toByteArray()));
+            return statement.executeUpdate(loadDataSql());
+        }
+    }
+
+    String loadDataSql() {
+        return "LOAD DATA LOCAL INFILE 'chunk' INTO TABLE " + table
+            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+            + " (" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * LOAD DATA 의 기본 이스케이프 규칙을 따른다. (null 은 \N)
+     */
+    static void appendField(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("\\N");
+            return;
+        }
+        if (value instanceof Boolean) {
+            line.append((Boolean) value ? '1' : '0');
+            return;
+        }
+        if (value instanceof byte[]) {
+            throw new IllegalArgumentException("Binary values are not supported by LOAD DATA mode");
+        }
+
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\0':
+                    line.append("\\0");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private void setLocalInfileInputStream(Statement statement, InputStream inputStream) throws SQLException {
+        Class<?> mysqlStatement;
+        try {
+            mysqlStatement = ClassUtils.forName(MYSQL_STATEMENT_CLASS, getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("LOAD_DATA_LOCAL_INFILE mode requires MySQL Connector/J", e);
+        }
+        if (!statement.isWrapperFor(mysqlStatement)) {
+            throw new IllegalStateException("LOAD_DATA_LOCAL_INFILE mode requires a MySQL connection");
+        }
+        Method method = ReflectionUtils.findMethod(mysqlStatement, "setLocalInfileInputStream", InputStream.class);
+        Assert.state(method != null, "setLocalInfileInputStream is not available on " + MYSQL_STATEMENT_CLASS);
+        ReflectionUtils.invokeMethod(method, statement.unwrap(mysqlStatement), inputStream);
+    }
+
+    /**
+     * setXxx(int parameterIndex, value, ...) 로 전달된 값을 row[parameterIndex - 1] 에 기록하는 PreparedStatement
+     * -> setNull 은 null 로 기록하고, 그 외의 메서드는 지원하지 않는다.
+     * -> 청크 마다 하나만 만들고 모든 행에 재사용한다.
+     */
+    private PreparedStatement recording(Object[] row) {
+        return (PreparedStatement) Proxy.newProxyInstance(BulkInsertItemWriter.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                if (!isParameterSetter(method)) {
+                    throw new UnsupportedOperationException(method.getName() + " is not supported in LOAD DATA mode");
+                }
+                int index = (Integer) args[0];
+                if (index < 1 || index > row.length) {
+                    throw new SQLException("Parameter index out of range: " + index + " (columns: " + row.length + ")");
+                }
+                row[index - 1] = method.getName().equals("setNull") ? null : args[1];
+                return null;
+            });
+    }
+
+    private static boolean isParameterSetter(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return method.getName().startsWith("set") && parameterTypes.length >= 2 && parameterTypes[0] == int.class;
+    }
+}
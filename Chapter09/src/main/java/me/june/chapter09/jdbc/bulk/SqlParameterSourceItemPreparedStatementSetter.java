@@ -0,0 +1,42 @@
+package me.june.chapter09.jdbc.bulk;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * 이름있는 파라미터 방식 (ItemSqlParameterSourceProvider) 을 인덱스 방식의 ItemPreparedStatementSetter 로 바꿔주는 어댑터
+ * -> parameterNames 의 순서대로 SqlParameterSource 에서 값을 꺼내 1 번 인덱스부터 바인딩한다.
+ * -> JdbcBatchItemWriterBuilder.beanMapped() 로 작성한 설정을 BulkInsertItemWriter 에서도 사용하기 위함
+ */
+public class SqlParameterSourceItemPreparedStatementSetter<T> implements ItemPreparedStatementSetter<T> {
+
+    private final ItemSqlParameterSourceProvider<T> itemSqlParameterSourceProvider;
+    private final String[] parameterNames;
+
+    public SqlParameterSourceItemPreparedStatementSetter(ItemSqlParameterSourceProvider<T> itemSqlParameterSourceProvider,
+        String... parameterNames) {
+        this.itemSqlParameterSourceProvider = itemSqlParameterSourceProvider;
+        this.parameterNames = parameterNames;
+    }
+
+    @Override
+    public void setValues(T item, PreparedStatement ps) throws SQLException {
+        SqlParameterSource source = itemSqlParameterSourceProvider.createSqlParameterSource(item);
+        for (int i = 0; i < parameterNames.length; i++) {
+            String name = parameterNames[i];
+            Object value = source.getValue(name);
+            int sqlType = source.getSqlType(name);
+            if (value == null && sqlType == SqlParameterSource.TYPE_UNKNOWN) {
+                // StatementCreatorUtils 는 타입을 모르는 null 의 타입을 ParameterMetaData 로 조회하므로 Types.NULL 로 직접 바인딩한다.
+                ps.setNull(i + 1, Types.NULL);
+            } else {
+                StatementCreatorUtils.setParameterValue(ps, i + 1, sqlType, value);
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package me.june.chapter09.jdbc.namedparameter;
 
 import javax.sql.DataSource;
 import me.june.chapter09.domain.Customer;
+import me.june.chapter09.jdbc.bulk.BulkInsertItemWriter;
+import me.june.chapter09.jdbc.bulk.SqlParameterSourceItemPreparedStatementSetter;
 import me.june.chapter09.jdbc.preparedstatement.CustomerItemPreparedStatementSetter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
@@ -9,6 +11,7 @@ import org.springframework.batch.core.configuration.annotation.EnableBatchProces
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
@@ -57,12 +60,34 @@ public class JdbcNamedParametersBatchConfiguration {
             .build();
     }
 
+    /**
+     * beanMapped() 와 같이 프로퍼티 이름으로 값을 꺼내되, 청크를 여러 행의 VALUES 또는 LOAD DATA LOCAL INFILE 로 한번에 적재한다.
+     */
+    @StepScope
+    @Bean
+    public BulkInsertItemWriter<Customer> bulkCustomerWriter(
+        DataSource dataSource,
+        @Value("${jdbc.bulk.mode:MULTI_ROW_VALUES}") BulkInsertItemWriter.Mode mode,
+        @Value("${jdbc.bulk.rows-per-statement:100}") int rowsPerStatement
+    ) {
+        BulkInsertItemWriter<Customer> writer = new BulkInsertItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setTable("customer");
+        writer.setColumns("first_name", "middle_initial", "last_name", "address", "city", "state", "zip");
+        writer.setItemPreparedStatementSetter(new SqlParameterSourceItemPreparedStatementSetter<>(
+            new BeanPropertyItemSqlParameterSourceProvider<>(),
+            "firstName", "middleInitial", "lastName", "address", "city", "state", "zip"));
+        writer.setMode(mode);
+        writer.setRowsPerStatement(rowsPerStatement);
+        return writer;
+    }
+
     @Bean
     public Step step() throws Exception {
         return this.stepBuilderFactory.get("jdbcStep")
             .<Customer, Customer>chunk(10)
             .reader(customerFileReader(null))
-            .writer(jdbcCustomerWriter(null))
+            .writer(bulkCustomerWriter(null, null, 0))
             .build();
     }
 
@@ -2,6 +2,7 @@ package me.june.chapter09.jdbc.preparedstatement;
 
 import javax.sql.DataSource;
 import me.june.chapter09.domain.Customer;
+import me.june.chapter09.jdbc.bulk.BulkInsertItemWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -56,12 +57,32 @@ public class JdbcPreparedStatementBatchConfiguration {
             .build();
     }
 
+    /**
+     * jdbcCustomerWriter 와 같은 setter 를 사용하되, 청크를 여러 행의 VALUES 또는 LOAD DATA LOCAL INFILE 로 한번에 적재한다.
+     */
+    @StepScope
+    @Bean
+    public BulkInsertItemWriter<Customer> bulkCustomerWriter(
+        DataSource dataSource,
+        @Value("${jdbc.bulk.mode:MULTI_ROW_VALUES}") BulkInsertItemWriter.Mode mode,
+        @Value("${jdbc.bulk.rows-per-statement:100}") int rowsPerStatement
+    ) {
+        BulkInsertItemWriter<Customer> writer = new BulkInsertItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setTable("customer");
+        writer.setColumns("first_name", "middle_initial", "last_name", "address", "city", "state", "zip");
+        writer.setItemPreparedStatementSetter(new CustomerItemPreparedStatementSetter());
+        writer.setMode(mode);
+        writer.setRowsPerStatement(rowsPerStatement);
+        return writer;
+    }
+
     @Bean
     public Step step() throws Exception {
         return this.stepBuilderFactory.get("jdbcStep")
             .<Customer, Customer>chunk(10)
             .reader(customerFileReader(null))
-            .writer(jdbcCustomerWriter(null))
+            .writer(bulkCustomerWriter(null, null, 0))
             .build();
     }
 
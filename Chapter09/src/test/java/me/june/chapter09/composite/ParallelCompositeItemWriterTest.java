@@ -0,0 +1,295 @@
+package me.june.chapter09.composite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Result;
+import javax.xml.transform.stax.StAXResult;
+import me.june.chapter09.domain.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.xml.StaxEventItemWriter;
+import org.springframework.batch.item.xml.builder.StaxEventItemWriterBuilder;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.oxm.Marshaller;
+import org.springframework.oxm.MarshallingFailureException;
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ParallelCompositeItemWriterTest {
+
+    private static final String POSITION_KEY = "customerItemWriter.position";
+
+    @TempDir
+    File tempDir;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    /**
+     * 롤백된 청크의 XML 은 전용 스레드의 버퍼에서 버려지고, 커밋된 청크만 파일에 남는다.
+     */
+    @Test
+    void rolledBackChunkLeavesNoXmlOnDisk() throws Exception {
+        File file = new File(tempDir, "customers.xml");
+        ParallelCompositeItemWriter<Customer> writer = writer(xmlWriter(file));
+        writer.open(new ExecutionContext());
+
+        transactionTemplate.executeWithoutResult(status -> write(writer, List.of(customer("Committed", "AL"))));
+        long committedLength = file.length();
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            write(writer, List.of(customer("RolledBack", "AL")));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(file.length()).isEqualTo(committedLength);
+        writer.close();
+
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(content).contains("Committed").doesNotContain("RolledBack");
+    }
+
+    /**
+     * 스텝은 청크 트랜잭션 안에서 (커밋 전에) update 를 호출하므로, 저장되는 위치에는 아직 파일에 쓰이지 않은 버퍼가 포함되어야 한다.
+     */
+    @Test
+    void updateRecordsPositionIncludingBufferedBytes() throws Exception {
+        File file = new File(tempDir, "customers.xml");
+        ParallelCompositeItemWriter<Customer> writer = writer(xmlWriter(file));
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+
+        AtomicLong lengthBeforeCommit = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            write(writer, List.of(customer("Buffered", "AL")));
+            writer.update(executionContext);
+            lengthBeforeCommit.set(file.length());
+        });
+
+        long position = executionContext.getLong(POSITION_KEY);
+        assertThat(position).isGreaterThan(lengthBeforeCommit.get());
+        assertThat(position).isEqualTo(file.length());
+        writer.close();
+    }
+
+    /**
+     * 먼저 실패한 delegate 의 예외는 느린 delegate 까지 끝난 뒤에 던져진다.
+     */
+    @Test
+    void firstFailureIsRethrownAfterAllDelegatesFinish() throws Exception {
+        IllegalStateException failure = new IllegalStateException("fast failure");
+        AtomicBoolean slowFinished = new AtomicBoolean();
+        ItemWriter<Customer> failing = items -> {
+            throw failure;
+        };
+        ItemWriter<Customer> slow = items -> {
+            Thread.sleep(200);
+            slowFinished.set(true);
+        };
+        ParallelCompositeItemWriter<Customer> writer = writer(failing, slow);
+        writer.open(new ExecutionContext());
+
+        assertThatThrownBy(() -> writer.write(List.of(customer("Any", "AL"))))
+            .isSameAs(failure)
+            .satisfies(e -> assertThat(slowFinished).isTrue());
+        writer.close();
+    }
+
+    /**
+     * 청크 스레드에서 실행되는 (트랜잭션에 참여하는) delegate 가 실패하더라도 전용 스레드의 delegate 가 끝날때 까지 기다린다.
+     */
+    @Test
+    void transactionalDelegateFailureWaitsForDelegateThreads() throws Exception {
+        IllegalStateException failure = new IllegalStateException("transactional failure");
+        AtomicBoolean slowFinished = new AtomicBoolean();
+        ItemWriter<Customer> slow = items -> {
+            Thread.sleep(200);
+            slowFinished.set(true);
+        };
+        ItemWriter<Customer> transactional = items -> {
+            throw failure;
+        };
+        ParallelCompositeItemWriter<Customer> writer = writer(slow, transactional);
+        writer.setTransactionalDelegates(List.of(transactional));
+        writer.open(new ExecutionContext());
+
+        assertThatThrownBy(() -> writer.write(List.of(customer("Any", "AL"))))
+            .isSameAs(failure)
+            .satisfies(e -> assertThat(slowFinished).isTrue());
+        writer.close();
+    }
+
+    @Test
+    void everyDelegateReceivesWholeChunkWithoutClassifier() throws Exception {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        ParallelCompositeItemWriter<Customer> writer = writer(
+            items -> items.forEach(item -> first.add(item.getFirstName())),
+            items -> items.forEach(item -> second.add(item.getFirstName())));
+        writer.open(new ExecutionContext());
+
+        writer.write(List.of(customer("A", "AL"), customer("B", "TX")));
+
+        assertThat(first).containsExactly("A", "B");
+        assertThat(second).containsExactly("A", "B");
+        writer.close();
+    }
+
+    @Test
+    void reopenWithoutCloseIsRejected() throws Exception {
+        ParallelCompositeItemWriter<Customer> writer = writer(items -> {
+        });
+        writer.open(new ExecutionContext());
+
+        assertThatThrownBy(() -> writer.open(new ExecutionContext()))
+            .isInstanceOf(IllegalStateException.class);
+
+        writer.close();
+        writer.open(new ExecutionContext());
+        writer.close();
+    }
+
+    /**
+     * CompositeItemWriterJob 의 classifierCompositeItemWriter 와 같은 구성
+     * -> 주가 A ~ M 으로 시작하면 XML (전용 스레드), 그 외에는 트랜잭션에 참여하는 delegate (청크 스레드) 에 쓴다.
+     */
+    @Test
+    void classifierSendsEachItemOnlyToItsDelegate() throws Exception {
+        File file = new File(tempDir, "customers.xml");
+        StaxEventItemWriter<Customer> xmlWriter = xmlWriter(file);
+        List<String> jpaItems = new CopyOnWriteArrayList<>();
+        ItemWriter<Customer> jpaWriter = items -> items.forEach(item -> jpaItems.add(item.getFirstName()));
+        ParallelCompositeItemWriter<Customer> writer = classifierWriter(xmlWriter, jpaWriter);
+        writer.open(new ExecutionContext());
+
+        transactionTemplate.executeWithoutResult(status -> write(writer, List.of(
+            customer("Alabama", "AL"),
+            customer("Texas", "TX"),
+            customer("Maine", "ME"),
+            customer("Nevada", "NV"),
+            customer("Unknown", null))));
+        writer.close();
+
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(content).contains("Alabama", "Maine").doesNotContain("Texas", "Nevada", "Unknown");
+        assertThat(content.indexOf("Alabama")).isLessThan(content.indexOf("Maine"));
+        assertThat(jpaItems).containsExactly("Texas", "Nevada", "Unknown");
+    }
+
+    @Test
+    void delegateWithoutClassifiedItemsIsNotCalled() throws Exception {
+        List<List<? extends Customer>> xmlChunks = new CopyOnWriteArrayList<>();
+        List<List<? extends Customer>> jpaChunks = new CopyOnWriteArrayList<>();
+        ItemWriter<Customer> xmlWriter = xmlChunks::add;
+        ItemWriter<Customer> jpaWriter = jpaChunks::add;
+        ParallelCompositeItemWriter<Customer> writer = classifierWriter(xmlWriter, jpaWriter);
+        writer.open(new ExecutionContext());
+
+        writer.write(List.of(customer("Texas", "TX"), customer("Nevada", "NV")));
+
+        assertThat(xmlChunks).isEmpty();
+        assertThat(jpaChunks).hasSize(1);
+        assertThat(jpaChunks.get(0)).extracting(Customer::getFirstName).containsExactly("Texas", "Nevada");
+        writer.close();
+    }
+
+    @Test
+    void unregisteredClassifiedDelegateIsRejected() throws Exception {
+        List<Customer> written = new CopyOnWriteArrayList<>();
+        ItemWriter<Customer> registered = written::addAll;
+        ItemWriter<Customer> unregistered = items -> {
+        };
+        ParallelCompositeItemWriter<Customer> writer = writer(registered);
+        writer.setClassifier(customer -> customer.getState().startsWith("A") ? registered : unregistered);
+        writer.open(new ExecutionContext());
+
+        assertThatThrownBy(() -> writer.write(List.of(customer("Alabama", "AL"), customer("Texas", "TX"))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("not registered");
+        assertThat(written).isEmpty();
+        writer.close();
+    }
+
+    private static ParallelCompositeItemWriter<Customer> classifierWriter(
+        ItemWriter<Customer> xmlWriter,
+        ItemWriter<Customer> jpaWriter
+    ) {
+        ParallelCompositeItemWriter<Customer> writer = writer(xmlWriter, jpaWriter);
+        writer.setClassifier(new CustomerClassifier(xmlWriter, jpaWriter));
+        writer.setTransactionalDelegates(List.of(jpaWriter));
+        return writer;
+    }
+
+    @SafeVarargs
+    private static ParallelCompositeItemWriter<Customer> writer(ItemWriter<? super Customer>... delegates) {
+        ParallelCompositeItemWriter<Customer> writer = new ParallelCompositeItemWriter<>();
+        writer.setDelegates(List.of(delegates));
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    /**
+     * XStreamMarshaller 는 JDK 17 에서 --add-opens 없이 초기화되지 않으므로, 이름만 쓰는 StAX 마샬러를 사용한다.
+     */
+    static StaxEventItemWriter<Customer> xmlWriter(File file) throws Exception {
+        StaxEventItemWriter<Customer> writer = new StaxEventItemWriterBuilder<Customer>()
+            .name("customerItemWriter")
+            .resource(new FileSystemResource(file))
+            .marshaller(new CustomerNameMarshaller())
+            .rootTagName("customers")
+            .build();
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    static Customer customer(String firstName, String state) {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setState(state);
+        return customer;
+    }
+
+    private static void write(ParallelCompositeItemWriter<Customer> writer, List<Customer> items) {
+        try {
+            writer.write(items);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CustomerNameMarshaller implements Marshaller {
+
+        private final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return Customer.class.isAssignableFrom(clazz);
+        }
+
+        @Override
+        public void marshal(Object graph, Result result) throws XmlMappingException {
+            XMLEventWriter eventWriter = ((StAXResult) result).getXMLEventWriter();
+            try {
+                eventWriter.add(eventFactory.createStartElement("", "", "customer"));
+                eventWriter.add(eventFactory.createCharacters(((Customer) graph).getFirstName()));
+                eventWriter.add(eventFactory.createEndElement("", "", "customer"));
+            } catch (XMLStreamException e) {
+                throw new MarshallingFailureException("Could not write customer", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package me.june.chapter09.custom.propertyextract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.adapter.PropertyExtractingDelegatingItemWriter;
+
+/**
+ * 같은 아이템과 대상 객체로 스프링 배치의 PropertyExtractingDelegatingItemWriter 와 같은 메서드가 같은 인자로 호출되는지 비교한다.
+ */
+class MethodHandlePropertyExtractingItemWriterTest {
+
+    private static final List<Person> PEOPLE = List.of(
+        new Person("kim", 30, new Address("Seoul")),
+        new Person("lee", 25, new Address("Busan")),
+        new Person("park", 41, new Address("Incheon")));
+
+    @Test
+    void simplePropertiesMatchStockWriter() throws Exception {
+        assertSameCalls("record", "name", "age");
+    }
+
+    @Test
+    void nestedPropertiesMatchStockWriter() throws Exception {
+        assertSameCalls("record", "name", "address.city");
+    }
+
+    /**
+     * record(String, Integer), record(String, String) 중 꺼낸 인자의 타입에 맞는 메서드를 고른다.
+     */
+    @Test
+    void overloadIsResolvedByArgumentTypes() throws Exception {
+        List<Person> people = List.of(PEOPLE.get(0), PEOPLE.get(1));
+
+        assertThat(calls(new MethodHandlePropertyExtractingItemWriter<>(), people, "record", "name", "age"))
+            .containsExactly("record(String,Integer) kim 30", "record(String,Integer) lee 25");
+        assertThat(calls(new MethodHandlePropertyExtractingItemWriter<>(), people, "record", "name", "address.city"))
+            .containsExactly("record(String,String) kim Seoul", "record(String,String) lee Busan");
+    }
+
+    /**
+     * null 은 두 메서드 모두 받을 수 있다.
+     * -> MethodInvoker 는 먼저 찾은 메서드를 호출하지만 (순서는 보장되지 않는다) 이 라이터는 모호하다는 예외를 던진다.
+     */
+    @Test
+    void nullArgumentMatchingSeveralOverloadsIsAmbiguous() {
+        List<Person> people = List.of(new Person("choi", null, null));
+
+        assertThatThrownBy(() -> calls(new MethodHandlePropertyExtractingItemWriter<>(), people, "record", "name", "age"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Ambiguous");
+    }
+
+    /**
+     * Consumer<Person> 을 구현하면서 생긴 accept(Object) 브릿지 메서드는 후보에서 제외된다.
+     */
+    @Test
+    void bridgeMethodIsIgnored() throws Exception {
+        assertSameCalls("accept", "self");
+    }
+
+    @Test
+    void unknownMethodIsRejected() {
+        MethodHandlePropertyExtractingItemWriter<Person> writer = new MethodHandlePropertyExtractingItemWriter<>();
+        writer.setTargetObject(new Target());
+        writer.setTargetMethod("record");
+        writer.setFieldsUsedAsTargetMethodArguments(new String[]{"name"});
+
+        assertThatThrownBy(writer::afterPropertiesSet).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void assertSameCalls(String method, String... fields) throws Exception {
+        List<String> expected = calls(new PropertyExtractingDelegatingItemWriter<>(), PEOPLE, method, fields);
+        List<String> actual = calls(new MethodHandlePropertyExtractingItemWriter<>(), PEOPLE, method, fields);
+
+        assertThat(actual).hasSize(PEOPLE.size()).isEqualTo(expected);
+    }
+
+    private List<String> calls(ItemWriter<Person> writer, List<Person> people, String method, String... fields)
+        throws Exception {
+        Target target = new Target();
+        configure(writer, target, method, fields);
+        writer.write(people);
+        return target.calls;
+    }
+
+    private void configure(ItemWriter<Person> writer, Target target, String method, String[] fields) throws Exception {
+        if (writer instanceof MethodHandlePropertyExtractingItemWriter) {
+            MethodHandlePropertyExtractingItemWriter<Person> methodHandleWriter = (MethodHandlePropertyExtractingItemWriter<Person>) writer;
+            methodHandleWriter.setTargetObject(target);
+            methodHandleWriter.setTargetMethod(method);
+            methodHandleWriter.setFieldsUsedAsTargetMethodArguments(fields);
+            methodHandleWriter.afterPropertiesSet();
+        } else {
+            PropertyExtractingDelegatingItemWriter<Person> stockWriter = (PropertyExtractingDelegatingItemWriter<Person>) writer;
+            stockWriter.setTargetObject(target);
+            stockWriter.setTargetMethod(method);
+            stockWriter.setFieldsUsedAsTargetMethodArguments(fields);
+            stockWriter.afterPropertiesSet();
+        }
+    }
+
+    public static class Target implements Consumer<Person> {
+
+        private final List<String> calls = new ArrayList<>();
+
+        public void record(String name, Integer age) {
+            calls.add("record(String,Integer) " + name + " " + age);
+        }
+
+        public void record(String name, String city) {
+            calls.add("record(String,String) " + name + " " + city);
+        }
+
+        @Override
+        public void accept(Person person) {
+            calls.add("accept(Person) " + person.getName());
+        }
+    }
+
+    public static class Person {
+
+        private final String name;
+        private final Integer age;
+        private final Address address;
+
+        public Person(String name, Integer age, Address address) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public Person getSelf() {
+            return this;
+        }
+    }
+
+    public static class Address {
+
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+}
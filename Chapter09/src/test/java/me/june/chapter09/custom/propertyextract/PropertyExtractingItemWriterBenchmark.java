@@ -0,0 +1,105 @@
+package me.june.chapter09.custom.propertyextract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import me.june.chapter09.domain.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.batch.item.adapter.PropertyExtractingDelegatingItemWriter;
+
+/**
+ * PropertyExtractingDelegateJob 과 같은 설정 (Customer 의 프로퍼티 4개) 으로 청크 하나를 쓰는 시간을 비교한다.
+ * -> 테스트로 실행되지 않으므로 main 으로 실행한다. (mvn test-compile 후 테스트 클래스패스로 실행)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyExtractingItemWriterBenchmark {
+
+    private static final String[] FIELDS = {"address", "city", "state", "zip"};
+
+    @Param({"10", "1000"})
+    private int chunkSize;
+
+    private List<Customer> chunk;
+    private PropertyExtractingDelegatingItemWriter<Customer> stockWriter;
+    private MethodHandlePropertyExtractingItemWriter<Customer> methodHandleWriter;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws Exception {
+        chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            Customer customer = new Customer();
+            customer.setAddress(i + " Main St");
+            customer.setCity("Chicago");
+            customer.setState("IL");
+            customer.setZip("60601");
+            chunk.add(customer);
+        }
+
+        Target target = new Target(blackhole);
+
+        stockWriter = new PropertyExtractingDelegatingItemWriter<>();
+        stockWriter.setTargetObject(target);
+        stockWriter.setTargetMethod("logCustomerAddress");
+        stockWriter.setFieldsUsedAsTargetMethodArguments(FIELDS);
+        stockWriter.afterPropertiesSet();
+
+        methodHandleWriter = new MethodHandlePropertyExtractingItemWriter<>();
+        methodHandleWriter.setTargetObject(target);
+        methodHandleWriter.setTargetMethod("logCustomerAddress");
+        methodHandleWriter.setFieldsUsedAsTargetMethodArguments(FIELDS);
+        methodHandleWriter.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public void propertyExtractingDelegatingItemWriter() throws Exception {
+        stockWriter.write(chunk);
+    }
+
+    @Benchmark
+    public void methodHandlePropertyExtractingItemWriter() throws Exception {
+        methodHandleWriter.write(chunk);
+    }
+
+    /**
+     * CustomerService.logCustomerAddress 와 같은 시그니처이되, 출력 대신 Blackhole 로 값을 소비한다.
+     */
+    public static class Target {
+
+        private final Blackhole blackhole;
+
+        public Target(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        public void logCustomerAddress(String address, String city, String state, String zip) {
+            blackhole.consume(address);
+            blackhole.consume(city);
+            blackhole.consume(state);
+            blackhole.consume(zip);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(PropertyExtractingItemWriterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package me.june.chapter09.jdbc.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import me.june.chapter09.domain.Customer;
+import me.june.chapter09.jdbc.preparedstatement.CustomerItemPreparedStatementSetter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * README 의 customer 테이블 (sql/customer.sql) 에 MULTI_ROW_VALUES 로 실제로 적재해 본다.
+ * -> 청크 크기 10 / 100 / 1000 / 10000 에서 JdbcBatchItemWriter 와 같은 행이 들어가는지 확인하고, 걸린 시간을 로그로 남긴다.
+ *    (H2 는 네트워크 왕복이 없으므로 시간은 참고용이며 검증하지 않는다.)
+ */
+@Slf4j
+class BulkInsertItemWriterH2Test {
+
+    private static final String[] COLUMNS = {"first_name", "middle_initial", "last_name", "address", "city", "state", "zip"};
+    private static final String SELECT_ALL =
+        "select first_name, middle_initial, last_name, address, city, state, zip from customer order by id";
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:sql/customer.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void insertsSameRowsAsJdbcBatchItemWriterForEachChunkSize() throws Exception {
+        List<Customer> customers = customers(20_000);
+
+        for (int chunkSize : new int[]{10, 100, 1000, 10_000}) {
+            long jdbcBatchNanos = writeInChunks(jdbcBatchWriter(), customers, chunkSize);
+            List<Map<String, Object>> expected = jdbcTemplate.queryForList(SELECT_ALL);
+            jdbcTemplate.update("delete from customer");
+
+            long bulkNanos = writeInChunks(bulkWriter(new CustomerItemPreparedStatementSetter()), customers, chunkSize);
+            List<Map<String, Object>> actual = jdbcTemplate.queryForList(SELECT_ALL);
+            jdbcTemplate.update("delete from customer");
+
+            assertThat(actual).as("chunkSize=%d", chunkSize).hasSize(customers.size()).isEqualTo(expected);
+            log.info("chunkSize={} JdbcBatchItemWriter={} ms BulkInsertItemWriter(MULTI_ROW_VALUES)={} ms",
+                chunkSize, TimeUnit.NANOSECONDS.toMillis(jdbcBatchNanos), TimeUnit.NANOSECONDS.toMillis(bulkNanos));
+        }
+    }
+
+    /**
+     * JdbcNamedParametersBatchConfiguration 처럼 프로퍼티 이름으로 값을 꺼내는 setter 도 같은 행을 만든다.
+     */
+    @Test
+    void insertsWithSqlParameterSourceSetter() throws Exception {
+        List<Customer> customers = customers(250);
+
+        writeInChunks(bulkWriter(new SqlParameterSourceItemPreparedStatementSetter<>(
+            new BeanPropertyItemSqlParameterSourceProvider<>(),
+            "firstName", "middleInitial", "lastName", "address", "city", "state", "zip")), customers, 250);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_ALL);
+        assertThat(rows).hasSize(250);
+        assertThat(rows.get(249)).containsEntry("FIRST_NAME", "first-249").containsEntry("ZIP", "00249");
+    }
+
+    /**
+     * JDBC 배치로 쓴 행과 나머지 행이 같은 청크 트랜잭션에 속하므로, 나머지 행이 실패하면 청크 전체가 롤백된다.
+     */
+    @Test
+    void failedRemainderRollsBackWholeChunk() throws Exception {
+        List<Customer> customers = customers(250);
+        customers.get(249).setState("TOO_LONG");
+        BulkInsertItemWriter<Customer> writer = bulkWriter(new CustomerItemPreparedStatementSetter());
+
+        assertThatThrownBy(() -> writeInChunks(writer, customers, 250)).isInstanceOf(RuntimeException.class);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from customer", Integer.class)).isZero();
+    }
+
+    private BulkInsertItemWriter<Customer> bulkWriter(ItemPreparedStatementSetter<? super Customer> setter) {
+        BulkInsertItemWriter<Customer> writer = new BulkInsertItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setTable("customer");
+        writer.setColumns(COLUMNS);
+        writer.setItemPreparedStatementSetter(setter);
+        writer.setRowsPerStatement(100);
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    private JdbcBatchItemWriter<Customer> jdbcBatchWriter() {
+        JdbcBatchItemWriter<Customer> writer = new JdbcBatchItemWriterBuilder<Customer>()
+            .dataSource(dataSource)
+            .sql("INSERT INTO customer (first_name, middle_initial, last_name, address, city, state, zip) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)")
+            .itemPreparedStatementSetter(new CustomerItemPreparedStatementSetter())
+            .build();
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    /**
+     * 스텝처럼 청크마다 하나의 트랜잭션에서 쓴다.
+     * @return 걸린 시간 (ns)
+     */
+    private long writeInChunks(ItemWriter<Customer> writer, List<Customer> customers, int chunkSize) {
+        long start = System.nanoTime();
+        for (int from = 0; from < customers.size(); from += chunkSize) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + chunkSize, customers.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(chunk);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Customer customer = new Customer();
+            customer.setFirstName("first-" + i);
+            customer.setMiddleInitial(i % 3 == 0 ? null : "M");
+            customer.setLastName("last-" + i);
+            customer.setAddress(i + " Main St, 'quoted'");
+            customer.setCity("City");
+            customer.setState("IL");
+            customer.setZip(String.format("%05d", i % 100_000));
+            customers.add(customer);
+        }
+        return customers;
+    }
+}
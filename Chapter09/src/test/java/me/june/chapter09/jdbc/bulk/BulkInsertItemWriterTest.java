@@ -0,0 +1,103 @@
+package me.june.chapter09.jdbc.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class BulkInsertItemWriterTest {
+
+    private static final String TWO_ROWS = "INSERT INTO customer (first_name, last_name) VALUES (?, ?), (?, ?)";
+    private static final String ONE_ROW = "INSERT INTO customer (first_name, last_name) VALUES (?, ?)";
+
+    @Test
+    void insertSqlRepeatsRowPlaceholders() {
+        BulkInsertItemWriter<String[]> writer = writer(null, 2);
+
+        assertThat(writer.insertSql(1)).isEqualTo(ONE_ROW);
+        assertThat(writer.insertSql(2)).isEqualTo(TWO_ROWS);
+    }
+
+    @Test
+    void loadDataSqlListsColumns() {
+        BulkInsertItemWriter<String[]> writer = writer(null, 2);
+
+        assertThat(writer.loadDataSql()).isEqualTo("LOAD DATA LOCAL INFILE 'chunk' INTO TABLE customer"
+            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+            + " (first_name, last_name)");
+    }
+
+    /**
+     * 나누어 떨어지는 행은 JDBC 배치로, 나머지 행은 별도의 구문으로 쓰고 각 행은 자신의 위치로 옮긴 인덱스에 바인딩된다.
+     */
+    @Test
+    void writeBindsEachRowAtItsOffset() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement fullStatement = mock(PreparedStatement.class);
+        PreparedStatement remainderStatement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(TWO_ROWS)).thenReturn(fullStatement);
+        when(connection.prepareStatement(ONE_ROW)).thenReturn(remainderStatement);
+        when(fullStatement.executeBatch()).thenReturn(new int[]{2, 2});
+        when(remainderStatement.executeUpdate()).thenReturn(1);
+
+        writer(dataSource, 2).write(List.of(
+            new String[]{"a", "A"}, new String[]{"b", "B"}, new String[]{"c", "C"}, new String[]{"d", "D"},
+            new String[]{"e", "E"}));
+
+        InOrder order = inOrder(fullStatement, remainderStatement);
+        order.verify(fullStatement).setString(1, "a");
+        order.verify(fullStatement).setString(2, "A");
+        order.verify(fullStatement).setString(3, "b");
+        order.verify(fullStatement).setString(4, "B");
+        order.verify(fullStatement).addBatch();
+        order.verify(fullStatement).setString(1, "c");
+        order.verify(fullStatement).setString(2, "C");
+        order.verify(fullStatement).setString(3, "d");
+        order.verify(fullStatement).setString(4, "D");
+        order.verify(fullStatement).addBatch();
+        order.verify(fullStatement).executeBatch();
+        order.verify(remainderStatement).setString(1, "e");
+        order.verify(remainderStatement).setString(2, "E");
+        order.verify(remainderStatement).executeUpdate();
+    }
+
+    @Test
+    void appendFieldEscapesLoadDataSpecialCharacters() {
+        StringBuilder line = new StringBuilder();
+
+        BulkInsertItemWriter.appendField(line, "a\tb\\c\nd\re\0f");
+        line.append('|');
+        BulkInsertItemWriter.appendField(line, null);
+        line.append('|');
+        BulkInsertItemWriter.appendField(line, true);
+        line.append('|');
+        BulkInsertItemWriter.appendField(line, 42L);
+        line.append('|');
+        BulkInsertItemWriter.appendField(line, "한글");
+
+        assertThat(line.toString()).isEqualTo("a\\tb\\\\c\\nd\\re\\0f|\\N|1|42|한글");
+    }
+
+    private static BulkInsertItemWriter<String[]> writer(DataSource dataSource, int rowsPerStatement) {
+        BulkInsertItemWriter<String[]> writer = new BulkInsertItemWriter<>();
+        writer.setDataSource(dataSource == null ? mock(DataSource.class) : dataSource);
+        writer.setTable("customer");
+        writer.setColumns("first_name", "last_name");
+        writer.setItemPreparedStatementSetter((item, ps) -> {
+            ps.setString(1, item[0]);
+            ps.setString(2, item[1]);
+        });
+        writer.setRowsPerStatement(rowsPerStatement);
+        writer.afterPropertiesSet();
+        return writer;
+    }
+}